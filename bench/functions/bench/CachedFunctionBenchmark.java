@@ -0,0 +1,70 @@
+package functions.bench;
+
+import functions.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Вычисление дорогой функции напрямую и через CachedFunction на повторяющихся аргументах
+// "distinct" - количество разных аргументов, перебираемых по кругу; при distinct больше емкости кэша
+// часть обращений вытесняет записи
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class CachedFunctionBenchmark {
+    private static final int ARGUMENTS = 1 << 16;
+    private static final int CAPACITY = 1 << 12;
+
+    @Param({"1024", "16384"})
+    public int distinct;
+
+    private Function direct;
+    private CachedFunction cached;
+    private double[] arguments;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Частичная сумма ряда Фурье - около сотни наносекунд на вычисление
+        direct = new Function() {
+            public double getLeftDomainBorder() {
+                return Double.NEGATIVE_INFINITY;
+            }
+
+            public double getRightDomainBorder() {
+                return Double.POSITIVE_INFINITY;
+            }
+
+            public double getFunctionValue(double x) {
+                double sum = 0.0;
+                for (int k = 1; k <= 16; k++) {
+                    sum += Math.sin(k * x) / k;
+                }
+                return sum;
+            }
+        };
+        cached = new CachedFunction(direct, CAPACITY);
+
+        Random random = new Random(42);
+        arguments = new double[ARGUMENTS];
+        for (int i = 0; i < ARGUMENTS; i++) {
+            arguments[i] = random.nextInt(distinct) * 0.001;
+        }
+    }
+
+    @Benchmark
+    public double direct() {
+        next = (next + 1) & (ARGUMENTS - 1);
+        return direct.getFunctionValue(arguments[next]);
+    }
+
+    @Benchmark
+    public double cached() {
+        next = (next + 1) & (ARGUMENTS - 1);
+        return cached.getFunctionValue(arguments[next]);
+    }
+}
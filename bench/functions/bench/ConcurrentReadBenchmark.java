@@ -0,0 +1,64 @@
+package functions.bench;
+
+import functions.*;
+import functions.basic.Sin;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Один писатель меняет ординаты, остальные потоки вычисляют значения функции
+// "synchronized" - DoubleArrayTabulatedFunction, все обращения к которой синхронизированы на ней самой,
+// "stamped" - ConcurrentTabulatedFunction с оптимистичным чтением,
+// "copyOnWrite" - CopyOnWriteTabulatedFunction (каждая запись копирует таблицу)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Group)
+public class ConcurrentReadBenchmark {
+    @Param({"synchronized", "stamped", "copyOnWrite"})
+    public String mode;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private TabulatedFunction function;
+    private boolean synchronize;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        synchronize = mode.equals("synchronized");
+        Class<?> implementation = synchronize ? DoubleArrayTabulatedFunction.class
+            : mode.equals("stamped") ? ConcurrentTabulatedFunction.class : CopyOnWriteTabulatedFunction.class;
+        function = TabulatedFunctions.tabulate(implementation, new Sin(), 0, 100, size);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(7)
+    public double read() {
+        double x = ThreadLocalRandom.current().nextDouble() * 100;
+        if (synchronize) {
+            synchronized (function) {
+                return function.getFunctionValue(x);
+            }
+        }
+        return function.getFunctionValue(x);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void write() {
+        int index = ThreadLocalRandom.current().nextInt(size);
+        if (synchronize) {
+            synchronized (function) {
+                function.setPointY(index, function.getPointY(index) + 1e-9);
+            }
+            return;
+        }
+        function.setPointY(index, function.getPointY(index) + 1e-9);
+    }
+}
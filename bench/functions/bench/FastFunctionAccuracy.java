@@ -0,0 +1,148 @@
+package functions.bench;
+
+import functions.Function;
+import functions.basic.*;
+
+import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
+
+// Проверка документированных границ погрешности быстрых функций (см. Accuracy) перебором точек
+// Для каждой функции и каждого уровня точности перебираются точки всех табличных отрезков по всему
+// рабочему диапазону, точки около корней и полюсов и случайные аргументы; значения сравниваются со StrictMath
+// Запуск после mvn -Pjmh package: java -cp target/benchmarks.jar functions.bench.FastFunctionAccuracy
+// Код завершения 1, если где-либо погрешность больше Accuracy.getRelativeError()
+public final class FastFunctionAccuracy {
+    // Точек на каждом табличном отрезке
+    private static final int POINTS_PER_CELL = 32;
+    private static final int RANDOM_POINTS = 1 << 20;
+    private static final double TRIG_STEP = Math.PI / 32;
+    private static final double TRIG_LIMIT = 0x1p16;
+    private static final double LN2_64 = Math.log(2) / 64;
+
+    private FastFunctionAccuracy() {
+    }
+
+    // Максимальная относительная погрешность и аргумент, на котором она достигается
+    private static final class Error {
+        private double max;
+        private double argument;
+        private long points;
+
+        private void check(Function function, DoubleUnaryOperator reference, double x) {
+            double expected = reference.applyAsDouble(x);
+            double actual = function.getFunctionValue(x);
+            points++;
+            double error;
+            if (Double.isNaN(expected) || Double.isInfinite(expected) || expected == 0.0) {
+                error = Double.compare(expected, actual) == 0 || expected == actual ? 0.0 : Double.POSITIVE_INFINITY;
+            } else {
+                error = Math.abs(actual - expected) / Math.abs(expected);
+            }
+            if (!(error <= max)) {
+                max = error;
+                argument = x;
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        boolean failed = false;
+        for (Accuracy accuracy : Accuracy.values()) {
+            failed |= report("sin", accuracy, trig(new FastSin(accuracy), StrictMath::sin));
+            failed |= report("cos", accuracy, trig(new FastCos(accuracy), StrictMath::cos));
+            failed |= report("tan", accuracy, trig(new FastTan(accuracy), StrictMath::tan));
+            failed |= report("exp", accuracy, exp(new FastExp(accuracy)));
+            for (double base : new double[]{Math.E, 2.0, 10.0, 0.5}) {
+                failed |= report("log по основанию " + (float) base, accuracy, log(new FastLog(base, accuracy), base));
+            }
+        }
+        if (failed) {
+            System.out.println("Погрешность превышает документированную границу");
+            System.exit(1);
+        }
+    }
+
+    private static boolean report(String name, Accuracy accuracy, Error error) {
+        boolean failed = !(error.max <= accuracy.getRelativeError());
+        System.out.printf("%-22s %-9s точек %9d  погрешность %.3e (x = %s)%s%n", name, accuracy, error.points,
+            error.max, error.argument, failed ? "  ПРЕВЫШЕНА ГРАНИЦА " + accuracy.getRelativeError() : "");
+        return failed;
+    }
+
+    private static Error trig(Function function, DoubleUnaryOperator reference) {
+        Error error = new Error();
+        int maxNode = (int) (TRIG_LIMIT / TRIG_STEP);
+        // Все табличные отрезки около нуля и у границы рабочего диапазона
+        for (int k = -4096; k <= 4096; k++) {
+            cell(function, reference, error, k);
+            cell(function, reference, error, maxNode - 4096 + k);
+            cell(function, reference, error, -maxNode + 4096 + k);
+        }
+        // Корни sin и cos, полюсы tan: ближайшие к m * pi / 2 числа и их соседи
+        for (int m = -(int) (TRIG_LIMIT / (Math.PI / 2)); m <= (int) (TRIG_LIMIT / (Math.PI / 2)); m++) {
+            double x = m * (Math.PI / 2);
+            for (int ulps = -4; ulps <= 4; ulps++) {
+                error.check(function, reference, x + ulps * Math.ulp(x));
+            }
+        }
+        // Малые аргументы около порога перехода на Math и случайные аргументы
+        Random random = new Random(42);
+        for (int i = 0; i < RANDOM_POINTS; i++) {
+            error.check(function, reference, Math.scalb(1.0 + random.nextDouble(), -30 + random.nextInt(46))
+                * (random.nextBoolean() ? 1 : -1));
+            error.check(function, reference, (2 * random.nextDouble() - 1) * TRIG_LIMIT);
+        }
+        return error;
+    }
+
+    private static void cell(Function function, DoubleUnaryOperator reference, Error error, int k) {
+        double center = k * TRIG_STEP;
+        for (int i = 0; i <= POINTS_PER_CELL; i++) {
+            error.check(function, reference, center + (i / (double) POINTS_PER_CELL - 0.5) * TRIG_STEP);
+        }
+    }
+
+    private static Error exp(Function function) {
+        Error error = new Error();
+        // Все табличные отрезки от -708 до 708
+        int maxNode = (int) (708 / LN2_64);
+        for (int k = -maxNode; k <= maxNode; k++) {
+            double center = k * LN2_64;
+            for (int i = 0; i <= POINTS_PER_CELL; i++) {
+                error.check(function, StrictMath::exp, center + (i / (double) POINTS_PER_CELL - 0.5) * LN2_64);
+            }
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < RANDOM_POINTS; i++) {
+            error.check(function, StrictMath::exp, (2 * random.nextDouble() - 1) * 708);
+            error.check(function, StrictMath::exp, Math.scalb(random.nextDouble() - 0.5, -random.nextInt(60)));
+        }
+        return error;
+    }
+
+    private static Error log(Function function, double base) {
+        Error error = new Error();
+        double logBase = StrictMath.log(base);
+        DoubleUnaryOperator reference = x -> StrictMath.log(x) / logBase;
+        // Все узлы таблицы при всех порядках нормализованных чисел
+        for (int exponent = -1022; exponent <= 1023; exponent++) {
+            double scale = Math.scalb(1.0, exponent);
+            for (int node = 0; node < 128; node++) {
+                for (int i = 0; i < POINTS_PER_CELL; i++) {
+                    error.check(function, reference, (1.0 + (node + i / (double) POINTS_PER_CELL) / 128) * scale);
+                }
+            }
+        }
+        // Окрестность единицы, где логарифм близок к нулю
+        for (int ulps = 1; ulps <= 1 << 16; ulps++) {
+            error.check(function, reference, 1.0 + ulps * Math.ulp(1.0));
+            error.check(function, reference, 1.0 - ulps * Math.ulp(1.0) / 2);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < RANDOM_POINTS; i++) {
+            error.check(function, reference, Math.scalb(1.0 + random.nextDouble(), random.nextInt(2046) - 1022));
+            error.check(function, reference, 1.0 + (random.nextDouble() - 0.5) / 64);
+        }
+        return error;
+    }
+}
@@ -0,0 +1,95 @@
+package functions.bench;
+
+import functions.*;
+import functions.basic.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Вычисление точных элементарных функций и их быстрых вариантов по уровням точности
+// "accuracy" = EXACT - классы Sin, Cos, Tan, Exp, Log; иначе - FastSin и т.д. с этим уровнем Accuracy
+// Погрешности уровней проверяет FastFunctionAccuracy
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class FastFunctionBenchmark {
+    private static final int ARGUMENTS = 1 << 12;
+
+    @Param({"EXACT", "FAST", "BALANCED", "PRECISE"})
+    public String accuracy;
+
+    private Function sin;
+    private Function cos;
+    private Function tan;
+    private Function exp;
+    private Function log;
+    private double[] arguments;
+    private double[] values;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (accuracy.equals("EXACT")) {
+            sin = new Sin();
+            cos = new Cos();
+            tan = new Tan();
+            exp = new Exp();
+            log = new Log(10);
+        } else {
+            Accuracy level = Accuracy.valueOf(accuracy);
+            sin = new FastSin(level);
+            cos = new FastCos(level);
+            tan = new FastTan(level);
+            exp = new FastExp(level);
+            log = new FastLog(10, level);
+        }
+
+        Random random = new Random(42);
+        arguments = new double[ARGUMENTS];
+        for (int i = 0; i < ARGUMENTS; i++) {
+            arguments[i] = random.nextDouble() * 20;
+        }
+        values = new double[ARGUMENTS];
+    }
+
+    @Benchmark
+    public double sin() {
+        next = (next + 1) & (ARGUMENTS - 1);
+        return sin.getFunctionValue(arguments[next]);
+    }
+
+    @Benchmark
+    public double cos() {
+        next = (next + 1) & (ARGUMENTS - 1);
+        return cos.getFunctionValue(arguments[next]);
+    }
+
+    @Benchmark
+    public double tan() {
+        next = (next + 1) & (ARGUMENTS - 1);
+        return tan.getFunctionValue(arguments[next]);
+    }
+
+    @Benchmark
+    public double exp() {
+        next = (next + 1) & (ARGUMENTS - 1);
+        return exp.getFunctionValue(arguments[next]);
+    }
+
+    @Benchmark
+    public double log() {
+        next = (next + 1) & (ARGUMENTS - 1);
+        return log.getFunctionValue(arguments[next]);
+    }
+
+    // Пакетное вычисление синуса на всем массиве аргументов
+    @Benchmark
+    public double[] sinBatch() {
+        sin.getFunctionValues(arguments, values);
+        return values;
+    }
+}
@@ -0,0 +1,249 @@
+package functions.bench;
+
+import functions.*;
+import functions.basic.*;
+import functions.meta.*;
+
+import java.util.Random;
+
+// Проверка FunctionCompiler: скомпилированная функция должна совпадать с упрощенным деревом побитово
+// Строятся случайные деревья из всех узлов пакета functions.meta, базовых функций, табулированных
+// и пользовательских листьев (в том числе наследников узлов, которые компилятор не разворачивает);
+// значения сравниваются на случайных аргументах и на особых значениях (нули, бесконечности, NaN)
+// Отдельно проверяются границы области определения, изменение листа после компиляции и возврат
+// упрощенного дерева для слишком больших и слишком глубоких выражений
+// Запуск после mvn -Pjmh package: java -cp target/benchmarks.jar functions.bench.FunctionCompilerCheck
+// Код завершения 1 при первом расхождении
+public final class FunctionCompilerCheck {
+    private static final int TREES = 20000;
+    private static final int MAX_DEPTH = 6;
+    private static final int ARGUMENTS = 64;
+    private static final double[] SPECIAL_ARGUMENTS = {
+        0.0, -0.0, 1.0, -1.0, 0.5, Math.PI, 1e-300, -1e-300, 1e300, -1e300,
+        Double.MIN_VALUE, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN
+    };
+
+    private static final TabulatedFunction TABULATED = TabulatedFunctions.tabulate(new Exp(), -3, 3, 101);
+
+    private FunctionCompilerCheck() {
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        int compiled = 0;
+        for (int tree = 0; tree < TREES; tree++) {
+            Function function = randomTree(random, MAX_DEPTH);
+            Function simplified = Functions.simplify(function);
+            Function result = Functions.compile(function);
+            if (result.getClass().isHidden()) {
+                compiled++;
+            }
+            check(function, simplified, result, random);
+        }
+        System.out.printf("деревьев %d, скомпилировано %d: значения совпадают с упрощенным деревом%n", TREES, compiled);
+
+        checkLeafChange();
+        checkFallback();
+        System.out.println("Проверка FunctionCompiler пройдена");
+    }
+
+    private static void check(Function function, Function simplified, Function result, Random random) {
+        same(function, "левая граница", simplified.getLeftDomainBorder(), result.getLeftDomainBorder(), Double.NaN);
+        same(function, "правая граница", simplified.getRightDomainBorder(), result.getRightDomainBorder(), Double.NaN);
+        for (double x : SPECIAL_ARGUMENTS) {
+            same(function, "значение", simplified.getFunctionValue(x), result.getFunctionValue(x), x);
+        }
+        double[] xs = new double[ARGUMENTS];
+        for (int i = 0; i < ARGUMENTS; i++) {
+            xs[i] = random.nextBoolean() ? (random.nextDouble() - 0.5) * 8 : (random.nextDouble() - 0.5) * 1e3;
+            same(function, "значение", simplified.getFunctionValue(xs[i]), result.getFunctionValue(xs[i]), xs[i]);
+        }
+        double[] expected = new double[ARGUMENTS];
+        double[] actual = new double[ARGUMENTS];
+        simplified.getFunctionValues(xs, expected);
+        result.getFunctionValues(xs, actual);
+        for (int i = 0; i < ARGUMENTS; i++) {
+            same(function, "пакетное значение", expected[i], actual[i], xs[i]);
+        }
+    }
+
+    private static void same(Function function, String what, double expected, double actual, double x) {
+        if (Double.doubleToLongBits(expected) != Double.doubleToLongBits(actual)) {
+            System.out.println("Расхождение (" + what + ") при x = " + x + ": ожидалось " + expected
+                + ", получено " + actual + "\nдерево: " + describe(function));
+            System.exit(1);
+        }
+    }
+
+    // Листья не копируются: изменение табулированной функции видно скомпилированной
+    private static void checkLeafChange() {
+        TabulatedFunction leaf = TabulatedFunctions.tabulate(new Sin(), 0, 4, 41);
+        Function function = Functions.sum(Functions.mult(leaf, new Cos()), new Constant(1));
+        Function result = Functions.compile(function);
+        leaf.setPointY(20, 100.0);
+        Function simplified = Functions.simplify(function);
+        same(function, "значение после изменения листа", simplified.getFunctionValue(2.0), result.getFunctionValue(2.0), 2.0);
+        System.out.println("изменение листа после компиляции видно скомпилированной функции");
+    }
+
+    // Слишком большие и слишком глубокие деревья возвращаются упрощенными, но вычисляются так же
+    private static void checkFallback() {
+        Function huge = new Sin();
+        for (int i = 0; i < 3000; i++) {
+            huge = Functions.sum(huge, new Cos());
+        }
+        Function deep = new Sin();
+        for (int i = 0; i < 3000; i++) {
+            deep = Functions.composition(new Cos(), deep);
+        }
+        for (Function function : new Function[] {huge, deep}) {
+            Function result = Functions.compile(function);
+            if (result.getClass().isHidden()) {
+                System.out.println("Слишком большое дерево скомпилировано: " + result.getClass());
+                System.exit(1);
+            }
+            Function simplified = Functions.simplify(function);
+            for (double x : SPECIAL_ARGUMENTS) {
+                same(function, "значение без компиляции", simplified.getFunctionValue(x), result.getFunctionValue(x), x);
+            }
+        }
+        System.out.println("большие и глубокие деревья возвращаются упрощенными");
+    }
+
+    private static Function randomTree(Random random, int depth) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            return randomLeaf(random);
+        }
+        Function first = randomTree(random, depth - 1);
+        switch (random.nextInt(9)) {
+            case 0:
+                return new Sum(first, randomTree(random, depth - 1));
+            case 1:
+                return new Mult(first, randomTree(random, depth - 1));
+            case 2:
+                return new Power(first, randomPower(random));
+            case 3:
+                return new Composition(first, randomTree(random, depth - 1));
+            case 4:
+                return new Scale(first, randomScale(random), randomNumber(random));
+            case 5:
+                return new Shift(first, randomNumber(random), randomNumber(random));
+            case 6:
+                return new Affine(first, randomScale(random), randomNumber(random), randomNumber(random), randomNumber(random));
+            case 7:
+                // Наследник узла: компилятор и упрощение оставляют его листом
+                return new Sum(first, randomTree(random, depth - 1)) {
+                };
+            default:
+                return new Mult(first, new Constant(randomNumber(random)));
+        }
+    }
+
+    private static Function randomLeaf(Random random) {
+        switch (random.nextInt(10)) {
+            case 0:
+                return new Sin();
+            case 1:
+                return new Cos();
+            case 2:
+                return new Tan();
+            case 3:
+                return new Exp();
+            case 4:
+                return new Log(random.nextBoolean() ? Math.E : 0.5 + random.nextInt(10));
+            case 5:
+                return new Constant(randomNumber(random));
+            case 6:
+                return TABULATED;
+            case 7:
+                return new FastSin(Accuracy.values()[random.nextInt(Accuracy.values().length)]);
+            case 8:
+                // Пользовательская функция с собственной областью определения
+                return new Function() {
+                    public double getLeftDomainBorder() {
+                        return -10;
+                    }
+
+                    public double getRightDomainBorder() {
+                        return 10;
+                    }
+
+                    public double getFunctionValue(double x) {
+                        return x < -10 || x > 10 ? Double.NaN : x * x - 1;
+                    }
+                };
+            default:
+                // Константы 0 и 1 проверяют свертку в упрощении
+                return new Constant(random.nextInt(2));
+        }
+    }
+
+    private static double randomNumber(Random random) {
+        switch (random.nextInt(6)) {
+            case 0:
+                return 0.0;
+            case 1:
+                return 1.0;
+            case 2:
+                return -1.0;
+            default:
+                return (random.nextDouble() - 0.5) * 6;
+        }
+    }
+
+    // Коэффициент растяжения по X не может быть нулевым
+    private static double randomScale(Random random) {
+        double scale = randomNumber(random);
+        return scale == 0 ? 2.0 : scale;
+    }
+
+    private static double randomPower(Random random) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return 0.0;
+            case 1:
+                return 1.0;
+            case 2:
+                return 2.0;
+            case 3:
+                return 0.5;
+            default:
+                return random.nextInt(7) - 3;
+        }
+    }
+
+    private static String describe(Function function) {
+        String name = function.getClass().getSimpleName().isEmpty() ? "анонимный " + function.getClass().getSuperclass().getSimpleName()
+            : function.getClass().getSimpleName();
+        if (function.getClass() == Sum.class) {
+            return "Sum(" + describe(((Sum) function).getFirst()) + ", " + describe(((Sum) function).getSecond()) + ")";
+        }
+        if (function.getClass() == Mult.class) {
+            return "Mult(" + describe(((Mult) function).getFirst()) + ", " + describe(((Mult) function).getSecond()) + ")";
+        }
+        if (function.getClass() == Power.class) {
+            return "Power(" + describe(((Power) function).getFunction()) + ", " + ((Power) function).getPower() + ")";
+        }
+        if (function.getClass() == Composition.class) {
+            return "Composition(" + describe(((Composition) function).getOuter()) + ", "
+                + describe(((Composition) function).getInner()) + ")";
+        }
+        if (function.getClass() == Scale.class) {
+            Scale scale = (Scale) function;
+            return "Scale(" + describe(scale.getFunction()) + ", " + scale.getScaleX() + ", " + scale.getScaleY() + ")";
+        }
+        if (function.getClass() == Shift.class) {
+            Shift shift = (Shift) function;
+            return "Shift(" + describe(shift.getFunction()) + ", " + shift.getShiftX() + ", " + shift.getShiftY() + ")";
+        }
+        if (function.getClass() == Affine.class) {
+            Affine affine = (Affine) function;
+            return "Affine(" + describe(affine.getFunction()) + ", " + affine.getScaleX() + ", " + affine.getShiftX()
+                + ", " + affine.getScaleY() + ", " + affine.getShiftY() + ")";
+        }
+        if (function.getClass() == Constant.class) {
+            return String.valueOf(function.getFunctionValue(0));
+        }
+        return name;
+    }
+}
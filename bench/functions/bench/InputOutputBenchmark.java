@@ -0,0 +1,69 @@
+package functions.bench;
+
+import functions.*;
+import functions.basic.Sin;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+// Запись и чтение табулированных функций в байтовом и текстовом форматах
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class InputOutputBenchmark {
+    @Param({"ArrayTabulatedFunction", "LinkedListTabulatedFunction"})
+    public String implementation;
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int size;
+
+    private Class<?> functionClass;
+    private TabulatedFunction function;
+    private byte[] binary;
+    private String text;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ClassNotFoundException {
+        functionClass = Class.forName("functions." + implementation);
+        function = TabulatedFunctions.tabulate(functionClass, new Sin(), 0, Math.PI, size);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TabulatedFunctions.outputTabulatedFunction(function, bytes);
+        binary = bytes.toByteArray();
+
+        StringWriter writer = new StringWriter();
+        TabulatedFunctions.writeTabulatedFunction(function, writer);
+        text = writer.toString();
+    }
+
+    @Benchmark
+    public int outputBinary() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(binary.length);
+        TabulatedFunctions.outputTabulatedFunction(function, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public TabulatedFunction inputBinary() {
+        return TabulatedFunctions.inputTabulatedFunction(functionClass, new ByteArrayInputStream(binary));
+    }
+
+    @Benchmark
+    public int writeText() {
+        StringWriter out = new StringWriter(text.length());
+        TabulatedFunctions.writeTabulatedFunction(function, out);
+        return out.getBuffer().length();
+    }
+
+    @Benchmark
+    public TabulatedFunction readText() {
+        return TabulatedFunctions.readTabulatedFunction(functionClass, new StringReader(text));
+    }
+}
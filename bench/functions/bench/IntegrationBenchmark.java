@@ -0,0 +1,57 @@
+package functions.bench;
+
+import functions.*;
+import functions.basic.Exp;
+import functions.basic.Sin;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Численное интегрирование базовых и табулированных функций
+// Интегрирование табулированной функции методом трапеций вынесено в TabulatedIntegrationBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class IntegrationBenchmark {
+    @Param({"ArrayTabulatedFunction", "LinkedListTabulatedFunction"})
+    public String implementation;
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int size;
+
+    private final Function sin = new Sin();
+    private final Function exp = new Exp();
+    private TabulatedFunction tabulated;
+    private double step;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ClassNotFoundException {
+        tabulated = TabulatedFunctions.tabulate(
+            Class.forName("functions." + implementation), sin, 0, Math.PI, size);
+        // Шаг интегрирования соответствует размеру таблицы
+        step = Math.PI / size;
+    }
+
+    @Benchmark
+    public double integrateSin() {
+        return Functions.integrate(sin, 0, Math.PI, step);
+    }
+
+    @Benchmark
+    public double integrateSinParallel() {
+        return Functions.integrateParallel(sin, 0, Math.PI, step);
+    }
+
+    @Benchmark
+    public double integrateExpAdaptive() {
+        return Functions.integrateAdaptive(exp, 0, 1, 1e-12, 1e-12, 100000).getValue();
+    }
+
+    @Benchmark
+    public double integrateTabulatedExact() {
+        return tabulated.integrate(0.1, 3.0);
+    }
+}
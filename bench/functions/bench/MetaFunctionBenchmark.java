@@ -0,0 +1,62 @@
+package functions.bench;
+
+import functions.*;
+import functions.basic.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Вычисление дерева мета-функций: как построено, после Functions.simplify и после Functions.compile
+// Выражение: 0.5 * (scale(shift(scale(sin)))) ^ 2 + cos(x) * табулированная exp - в нем несколько разных
+// классов узлов вызываются через один и тот же интерфейс Function
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class MetaFunctionBenchmark {
+    private static final int ARGUMENTS = 1 << 12;
+
+    private Function tree;
+    private Function simplified;
+    private Function compiled;
+    private double[] arguments;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TabulatedFunction exp = TabulatedFunctions.tabulate(new Exp(), 0, 10, 1001);
+        Function chain = Functions.scale(Functions.shift(Functions.scale(new Sin(), 2, 3), 1, -0.5), 0.5, 4);
+        tree = Functions.sum(
+            Functions.scale(Functions.power(chain, 2), 1, 0.5),
+            Functions.mult(new Cos(), exp));
+        simplified = Functions.simplify(tree);
+        compiled = Functions.compile(tree);
+
+        Random random = new Random(42);
+        arguments = new double[ARGUMENTS];
+        for (int i = 0; i < ARGUMENTS; i++) {
+            arguments[i] = random.nextDouble() * 10;
+        }
+    }
+
+    @Benchmark
+    public double tree() {
+        next = (next + 1) & (ARGUMENTS - 1);
+        return tree.getFunctionValue(arguments[next]);
+    }
+
+    @Benchmark
+    public double simplified() {
+        next = (next + 1) & (ARGUMENTS - 1);
+        return simplified.getFunctionValue(arguments[next]);
+    }
+
+    @Benchmark
+    public double compiled() {
+        next = (next + 1) & (ARGUMENTS - 1);
+        return compiled.getFunctionValue(arguments[next]);
+    }
+}
@@ -0,0 +1,98 @@
+package functions.bench;
+
+import functions.*;
+import functions.basic.Sin;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Вычисление значений, обход итератором, добавление и удаление точек
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class TabulatedFunctionBenchmark {
+    // Количество заранее подготовленных аргументов, перебираемых по кругу
+    private static final int ARGUMENTS = 1 << 12;
+
+    @Param({"ArrayTabulatedFunction", "LinkedListTabulatedFunction"})
+    public String implementation;
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int size;
+
+    private TabulatedFunction function;
+    private double[] arguments;
+    private double[] sortedArguments;
+    private double[] values;
+    private double[] insertedX;
+    private int[] insertedIndex;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ClassNotFoundException {
+        function = TabulatedFunctions.tabulate(
+            Class.forName("functions." + implementation), new Sin(), 0, 100, size);
+
+        Random random = new Random(42);
+        arguments = new double[ARGUMENTS];
+        insertedX = new double[ARGUMENTS];
+        insertedIndex = new int[ARGUMENTS];
+        for (int i = 0; i < ARGUMENTS; i++) {
+            arguments[i] = random.nextDouble() * 100;
+            // Новая точка - середина случайного отрезка, после вставки ее индекс k + 1
+            int k = random.nextInt(size - 1);
+            insertedX[i] = (function.getPointX(k) + function.getPointX(k + 1)) / 2;
+            insertedIndex[i] = k + 1;
+        }
+        sortedArguments = arguments.clone();
+        java.util.Arrays.sort(sortedArguments);
+        values = new double[ARGUMENTS];
+    }
+
+    @Benchmark
+    public double getFunctionValue() {
+        next = (next + 1) & (ARGUMENTS - 1);
+        return function.getFunctionValue(arguments[next]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ARGUMENTS)
+    public double[] getFunctionValuesSorted() {
+        function.getFunctionValues(sortedArguments, values);
+        return values;
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (FunctionPoint point : function) {
+            blackhole.consume(point.getY());
+        }
+    }
+
+    @Benchmark
+    public void forEachPoint(Blackhole blackhole) {
+        function.forEachPoint((x, y) -> blackhole.consume(y));
+    }
+
+    @Benchmark
+    public void indexedAccess(Blackhole blackhole) {
+        int count = function.getPointsCount();
+        for (int i = 0; i < count; i++) {
+            blackhole.consume(function.getPointY(i));
+        }
+    }
+
+    // Добавление точки и удаление ее же - размер таблицы не меняется между вызовами
+    @Benchmark
+    public int addAndDeletePoint() throws InappropriateFunctionPointException {
+        next = (next + 1) & (ARGUMENTS - 1);
+        function.addPoint(new FunctionPoint(insertedX[next], 0));
+        function.deletePoint(insertedIndex[next]);
+        return function.getPointsCount();
+    }
+}
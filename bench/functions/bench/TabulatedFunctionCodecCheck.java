@@ -0,0 +1,204 @@
+package functions.bench;
+
+import functions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+// Проверка сжатого двоичного формата (TabulatedFunctions.outputCompressedTabulatedFunction):
+// после записи и чтения функция должна совпадать с исходной побитово во всех точках, а equals и contentHash -
+// давать те же результаты. Случайные таблицы строятся на равномерных и неравномерных сетках, в том числе
+// почти равномерных (одна абсцисса сдвинута на ulp) и начинающихся с -0.0; значения включают NaN (и NaN
+// с нестандартными битами), -0.0, бесконечности и крайние значения double; размеры захватывают границы
+// блоков кодировщика. Для равномерных сеток проверяется и то, что формат действительно хранит только границы
+// Запуск после mvn -Pjmh package: java -cp target/benchmarks.jar functions.bench.TabulatedFunctionCodecCheck
+// Код завершения 1 при первом расхождении
+public final class TabulatedFunctionCodecCheck {
+    private static final int TABLES = 20000;
+    // Смещение байта флагов в заголовке: int MAGIC, byte VERSION, byte флаги
+    private static final int FLAGS_OFFSET = 5;
+    private static final int FLAG_UNIFORM = 1;
+    private static final int[] BLOCK_SIZES = {2, 3, 4095, 4096, 4097, 8191, 8192, 8193};
+    private static final double[] SPECIAL_VALUES = {
+        0.0, -0.0, Double.NaN, Double.longBitsToDouble(0x7FF0_0000_0000_0001L), Double.longBitsToDouble(0xFFF8_0000_0000_1234L),
+        Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MIN_VALUE, -Double.MIN_VALUE,
+        Double.MAX_VALUE, -Double.MAX_VALUE, Double.MIN_NORMAL
+    };
+    private static final Class<?>[] CLASSES = {
+        ArrayTabulatedFunction.class, LinkedListTabulatedFunction.class, DoubleArrayTabulatedFunction.class,
+        TreeTabulatedFunction.class, ConcurrentTabulatedFunction.class, CopyOnWriteTabulatedFunction.class
+    };
+
+    private TabulatedFunctionCodecCheck() {
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        int uniform = 0;
+        long points = 0;
+        long bytes = 0;
+        for (int table = 0; table < TABLES; table++) {
+            int count = randomCount(random);
+            TabulatedFunction function = random.nextBoolean() ? randomUniform(random, count) : randomPoints(random, count);
+            Class<?> functionClass = CLASSES[table % CLASSES.length];
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            TabulatedFunctions.outputCompressedTabulatedFunction(function, out);
+            byte[] data = out.toByteArray();
+            TabulatedFunction restored = table % 2 == 0
+                ? TabulatedFunctions.inputCompressedTabulatedFunction(new ByteArrayInputStream(data))
+                : TabulatedFunctions.inputCompressedTabulatedFunction(functionClass, new ByteArrayInputStream(data));
+
+            check(function, restored);
+            // Равномерная сетка должна храниться границами, иначе сжатие теряется незаметно
+            boolean flagged = (data[FLAGS_OFFSET] & FLAG_UNIFORM) != 0;
+            boolean expected = isUniform(function);
+            if (flagged != expected) {
+                fail(function, "флаг равномерной сетки " + flagged + ", ожидался " + expected);
+            }
+            if (flagged) {
+                uniform++;
+            }
+            points += count;
+            bytes += data.length;
+        }
+        System.out.printf("таблиц %d (равномерных %d), точек %d: %.2f байт на точку, все совпадают после чтения%n",
+            TABLES, uniform, points, (double) bytes / points);
+        System.out.println("Проверка сжатого формата пройдена");
+    }
+
+    private static void check(TabulatedFunction function, TabulatedFunction restored) {
+        if (restored.getPointsCount() != function.getPointsCount()) {
+            fail(function, "количество точек " + restored.getPointsCount());
+        }
+        for (int i = 0; i < function.getPointsCount(); i++) {
+            if (Double.doubleToRawLongBits(function.getPointX(i)) != Double.doubleToRawLongBits(restored.getPointX(i))
+                || Double.doubleToRawLongBits(function.getPointY(i)) != Double.doubleToRawLongBits(restored.getPointY(i))) {
+                fail(function, "точка " + i + ": (" + function.getPointX(i) + "; " + function.getPointY(i) + ") прочитана как ("
+                    + restored.getPointX(i) + "; " + restored.getPointY(i) + ")");
+            }
+        }
+        if (!function.equals(restored) || !restored.equals(function)) {
+            fail(function, "equals после чтения (" + restored.getClass().getSimpleName() + ")");
+        }
+        if (function.contentHash() != restored.contentHash() || function.hashCode() != restored.hashCode()) {
+            fail(function, "хэш после чтения (" + restored.getClass().getSimpleName() + ")");
+        }
+    }
+
+    // Правило формата: все X, включая X[0], совпадают с leftX + i * step побитово
+    private static boolean isUniform(TabulatedFunction function) {
+        int count = function.getPointsCount();
+        double left = function.getPointX(0);
+        double step = (function.getPointX(count - 1) - left) / (count - 1);
+        for (int i = 0; i < count; i++) {
+            if (Double.doubleToRawLongBits(function.getPointX(i)) != Double.doubleToRawLongBits(left + i * step)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void fail(TabulatedFunction function, String message) {
+        System.out.println("Расхождение: " + message + "\nфункция из " + function.getPointsCount() + " точек, X[0] = "
+            + function.getPointX(0) + ", X[n-1] = " + function.getPointX(function.getPointsCount() - 1));
+        System.exit(1);
+    }
+
+    private static int randomCount(Random random) {
+        switch (random.nextInt(8)) {
+            case 0:
+                return BLOCK_SIZES[random.nextInt(BLOCK_SIZES.length)];
+            case 1:
+                return 2 + random.nextInt(3 * 4096);
+            default:
+                return 2 + random.nextInt(100);
+        }
+    }
+
+    private static TabulatedFunction randomUniform(Random random, int count) {
+        double left;
+        double right;
+        switch (random.nextInt(4)) {
+            case 0:
+                left = -0.0;
+                right = 1 + random.nextInt(100);
+                break;
+            case 1:
+                left = random.nextInt(21) - 10;
+                right = left + 1 + random.nextInt(10);
+                break;
+            default:
+                left = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(9) - 4);
+                right = left + random.nextDouble() * Math.pow(10, random.nextInt(9) - 4) + 1e-3;
+        }
+        TabulatedFunction function = new ArrayTabulatedFunction(left, right, randomValues(random, count));
+        if (left == 0 && random.nextBoolean()) {
+            // Сетка leftX + i * step, но с X[0] = -0.0: побитово она не равномерна
+            FunctionPoint[] points = new FunctionPoint[count];
+            for (int i = 0; i < count; i++) {
+                points[i] = function.getPoint(i);
+            }
+            points[0] = new FunctionPoint(-0.0, points[0].getY());
+            function = new ArrayTabulatedFunction(points);
+        }
+        return function;
+    }
+
+    private static TabulatedFunction randomPoints(Random random, int count) {
+        double[] ys = randomValues(random, count);
+        FunctionPoint[] points = new FunctionPoint[count];
+        int kind = random.nextInt(4);
+        double scale = Math.pow(10, random.nextInt(9) - 4);
+        double x = kind == 0 ? -0.0 : (random.nextDouble() - 0.5) * scale * count;
+        double step = scale;
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                switch (kind) {
+                    case 1:
+                        // Почти равномерная сетка: шаг постоянный, но одна абсцисса сдвинута на ulp
+                        x += step;
+                        break;
+                    case 2:
+                        x += Math.floor(1 + random.nextDouble() * 5);
+                        break;
+                    default:
+                        x += scale * (1e-6 + random.nextDouble());
+                }
+            }
+            points[i] = new FunctionPoint(x, ys[i]);
+        }
+        if (kind == 1) {
+            int i = 1 + random.nextInt(count - 1);
+            points[i] = new FunctionPoint(Math.nextUp(points[i].getX()), ys[i]);
+        }
+        return new ArrayTabulatedFunction(points);
+    }
+
+    private static double[] randomValues(Random random, int count) {
+        double[] values = new double[count];
+        int kind = random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(16) == 0) {
+                values[i] = SPECIAL_VALUES[random.nextInt(SPECIAL_VALUES.length)];
+                continue;
+            }
+            switch (kind) {
+                case 0:
+                    // Гладкая функция: соседние значения близки, XOR короткий
+                    values[i] = Math.sin(i * 0.01);
+                    break;
+                case 1:
+                    values[i] = random.nextInt(5);
+                    break;
+                case 2:
+                    values[i] = Double.longBitsToDouble(random.nextLong());
+                    break;
+                default:
+                    values[i] = (random.nextDouble() - 0.5) * 1e6;
+            }
+        }
+        return values;
+    }
+}
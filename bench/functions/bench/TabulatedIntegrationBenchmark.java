@@ -0,0 +1,40 @@
+package functions.bench;
+
+import functions.*;
+import functions.basic.Sin;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Интегрирование табулированной функции методом трапеций (Functions.integrate)
+// Шаг не зависит от размера таблицы, а размеры ограничены 10^5: getFunctionValue у
+// LinkedListTabulatedFunction ищет отрезок проходом от головы списка, и при 10^7 точках один вызов
+// занимает десятки секунд
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class TabulatedIntegrationBenchmark {
+    private static final double STEP = 0.01;
+
+    @Param({"ArrayTabulatedFunction", "LinkedListTabulatedFunction"})
+    public String implementation;
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private TabulatedFunction tabulated;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ClassNotFoundException {
+        tabulated = TabulatedFunctions.tabulate(
+            Class.forName("functions." + implementation), new Sin(), 0, Math.PI, size);
+    }
+
+    @Benchmark
+    public double integrateTabulated() {
+        return Functions.integrate(tabulated, 0.1, 3.0, STEP);
+    }
+}
@@ -0,0 +1,40 @@
+package functions.bench;
+
+import functions.*;
+import functions.basic.Sin;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Табулирование функции через фабрику и через рефлексию
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class TabulationBenchmark {
+    @Param({"ArrayTabulatedFunction", "LinkedListTabulatedFunction"})
+    public String implementation;
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int size;
+
+    private final Function sin = new Sin();
+    private Class<?> functionClass;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ClassNotFoundException {
+        functionClass = Class.forName("functions." + implementation);
+    }
+
+    @Benchmark
+    public TabulatedFunction tabulate() {
+        return TabulatedFunctions.tabulate(functionClass, sin, 0, Math.PI, size);
+    }
+
+    @Benchmark
+    public TabulatedFunction tabulateParallel() {
+        return TabulatedFunctions.tabulateParallel(functionClass, sin, 0, Math.PI, size);
+    }
+}
@@ -0,0 +1,306 @@
+package functions.bench;
+
+import functions.*;
+
+import java.lang.reflect.Field;
+import java.util.Random;
+
+// Проверка TreeTabulatedFunction (АВЛ-дерево с размерами и площадями поддеревьев):
+// случайная последовательность изменений выполняется над деревом и над DoubleArrayTabulatedFunction,
+// после каждого изменения сравниваются исключения, точки по индексу, значения и интегралы, а периодически
+// через отражение проверяется само дерево: порядок X при обходе совпадает со ссылками prev/next и first/last,
+// высоты и размеры поддеревьев верны, баланс каждого узла не больше 1 по модулю, площади трапеций и их суммы
+// по поддеревьям совпадают с пересчитанными. Возрастающие и убывающие серии вставок вызывают повороты
+// Запуск после mvn -Pjmh package: java -cp target/benchmarks.jar functions.bench.TreeTabulatedFunctionCheck
+// Код завершения 1 при первом расхождении
+public final class TreeTabulatedFunctionCheck {
+    private static final int OPERATIONS = 200000;
+    private static final int FULL_CHECK_PERIOD = 64;
+    private static final int MAX_POINTS = 3000;
+    // Значения по модулю не больше 100 на отрезке не длиннее 2e4: интеграл не больше 2e6,
+    // ошибки суммирования в другом порядке - порядка 1e-16 от него
+    private static final double INTEGRAL_TOLERANCE = 1e-7;
+
+    private static Field root;
+    private static Field first;
+    private static Field last;
+    private static Field x;
+    private static Field y;
+    private static Field left;
+    private static Field right;
+    private static Field prev;
+    private static Field next;
+    private static Field height;
+    private static Field size;
+    private static Field segmentArea;
+    private static Field area;
+
+    private static long operation;
+    private static int nodesVisited;
+
+    private TreeTabulatedFunctionCheck() {
+    }
+
+    public static void main(String[] args) throws ReflectiveOperationException {
+        initFields();
+        Random random = new Random(42);
+        double[] ys = new double[16];
+        for (int i = 0; i < ys.length; i++) {
+            ys[i] = randomY(random);
+        }
+        TabulatedFunction tree = new TreeTabulatedFunction(-10, 10, ys);
+        TabulatedFunction reference = new DoubleArrayTabulatedFunction(-10, 10, ys);
+        int maxHeight = 0;
+
+        for (operation = 0; operation < OPERATIONS; operation++) {
+            Class<?> treeError = null;
+            Class<?> referenceError = null;
+            int kind = random.nextInt(100);
+            long seed = random.nextLong();
+            try {
+                apply(tree, kind, new Random(seed));
+            } catch (RuntimeException | InappropriateFunctionPointException e) {
+                treeError = e.getClass();
+            }
+            try {
+                apply(reference, kind, new Random(seed));
+            } catch (RuntimeException | InappropriateFunctionPointException e) {
+                referenceError = e.getClass();
+            }
+            if (treeError != referenceError) {
+                fail("исключение " + treeError + ", у DoubleArrayTabulatedFunction " + referenceError + " (операция " + kind + ")");
+            }
+            if (kind >= 98) {
+                tree = (TabulatedFunction) tree.clone();
+            }
+            compareSome(tree, reference, random);
+            if (operation % FULL_CHECK_PERIOD == 0) {
+                compareAll(tree, reference);
+                maxHeight = Math.max(maxHeight, checkStructure(tree));
+            }
+        }
+        compareAll(tree, reference);
+        checkStructure(tree);
+        System.out.printf("операций %d, точек в конце %d, наибольшая высота дерева %d, проверено узлов %d%n",
+            OPERATIONS, tree.getPointsCount(), maxHeight, nodesVisited);
+        System.out.println("Проверка TreeTabulatedFunction пройдена");
+    }
+
+    // Одно изменение; оба экземпляра получают одинаковый генератор, поэтому и одинаковые аргументы
+    private static void apply(TabulatedFunction function, int kind, Random random) throws InappropriateFunctionPointException {
+        int count = function.getPointsCount();
+        double leftX = function.getLeftDomainBorder();
+        double rightX = function.getRightDomainBorder();
+        if (count > MAX_POINTS) {
+            int from = random.nextInt(count / 2);
+            function.deletePoints(from, from + count / 2);
+        } else if (kind < 25) {
+            function.addPoint(new FunctionPoint(-1e4 + random.nextDouble() * 2e4, randomY(random)));
+        } else if (kind < 32) {
+            // Серия вставок справа от последней точки или слева от первой: повороты на каждом уровне
+            boolean ascending = random.nextBoolean();
+            int n = 1 + random.nextInt(200);
+            double step = Math.min(1.0, (1e4 - Math.max(Math.abs(leftX), Math.abs(rightX))) / (n + 1));
+            for (int i = 1; i <= n && step > 1e-6; i++) {
+                double newX = ascending ? rightX + i * step : leftX - i * step;
+                function.addPoint(new FunctionPoint(newX, randomY(random)));
+            }
+        } else if (kind < 36) {
+            // Повтор или почти повтор существующей абсциссы
+            double existing = function.getPointX(random.nextInt(count));
+            function.addPoint(new FunctionPoint(existing + (random.nextBoolean() ? 0.0 : 1e-11), randomY(random)));
+        } else if (kind < 56) {
+            function.deletePoint(random.nextInt(count));
+        } else if (kind < 62) {
+            int from = random.nextInt(count + 1);
+            int to = from + random.nextInt(Math.max(1, random.nextBoolean() ? 3 : count - from + 1));
+            function.deletePoints(from, to);
+        } else if (kind < 72) {
+            function.setPointY(random.nextInt(count), randomY(random));
+        } else if (kind < 82) {
+            int index = random.nextInt(count);
+            double low = index > 0 ? function.getPointX(index - 1) : leftX - 10;
+            double high = index < count - 1 ? function.getPointX(index + 1) : rightX + 10;
+            // Иногда новая абсцисса выходит за соседей: должно быть исключение и у обоих
+            double newX = random.nextInt(8) == 0 ? high + random.nextDouble() : low + (high - low) * random.nextDouble();
+            if (random.nextBoolean()) {
+                function.setPointX(index, newX);
+            } else {
+                function.setPoint(index, new FunctionPoint(newX, randomY(random)));
+            }
+        } else if (kind < 90) {
+            FunctionPoint[] points = new FunctionPoint[1 + random.nextInt(random.nextBoolean() ? 4 : 400)];
+            for (int i = 0; i < points.length; i++) {
+                points[i] = new FunctionPoint(-1e4 + random.nextDouble() * 2e4, randomY(random));
+            }
+            function.addPoints(points);
+        } else if (kind < 98) {
+            function.setPointY(random.nextInt(count), random.nextInt(8) == 0 ? 0.0 : randomY(random));
+        }
+    }
+
+    private static double randomY(Random random) {
+        return random.nextInt(4) == 0 ? random.nextInt(21) - 10 : (random.nextDouble() - 0.5) * 200;
+    }
+
+    private static void compareSome(TabulatedFunction tree, TabulatedFunction reference, Random random) {
+        int count = reference.getPointsCount();
+        if (tree.getPointsCount() != count) {
+            fail("точек " + tree.getPointsCount() + ", ожидалось " + count);
+        }
+        for (int k = 0; k < 4; k++) {
+            int index = random.nextInt(count);
+            FunctionPoint expected = reference.getPoint(index);
+            FunctionPoint actual = tree.getPoint(index);
+            if (!same(expected.getX(), actual.getX()) || !same(expected.getY(), actual.getY())) {
+                fail("точка " + index + ": " + actual + ", ожидалась " + expected);
+            }
+        }
+        double leftX = reference.getLeftDomainBorder();
+        double rightX = reference.getRightDomainBorder();
+        for (int k = 0; k < 4; k++) {
+            double argument = k == 0 ? reference.getPointX(random.nextInt(count)) : leftX + (rightX - leftX) * random.nextDouble();
+            if (!same(reference.getFunctionValue(argument), tree.getFunctionValue(argument))) {
+                fail("значение в " + argument + ": " + tree.getFunctionValue(argument) + ", ожидалось "
+                    + reference.getFunctionValue(argument));
+            }
+        }
+        for (int k = 0; k < 4; k++) {
+            double a = k == 0 ? leftX : leftX + (rightX - leftX) * random.nextDouble();
+            double b = k == 0 ? rightX : a + (rightX - a) * random.nextDouble();
+            if (k == 1) {
+                b = Math.min(rightX, a + (rightX - leftX) * 1e-4);
+            }
+            double expected = reference.integrate(a, b);
+            double actual = tree.integrate(a, b);
+            if (!(Math.abs(expected - actual) <= INTEGRAL_TOLERANCE)) {
+                fail("интеграл на [" + a + ", " + b + "]: " + actual + ", ожидался " + expected);
+            }
+        }
+    }
+
+    private static void compareAll(TabulatedFunction tree, TabulatedFunction reference) {
+        int count = reference.getPointsCount();
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        double[] treeXs = new double[count];
+        double[] treeYs = new double[count];
+        reference.copyPoints(0, xs, ys, count);
+        tree.copyPoints(0, treeXs, treeYs, count);
+        for (int i = 0; i < count; i++) {
+            if (!same(xs[i], treeXs[i]) || !same(ys[i], treeYs[i]) || !same(xs[i], tree.getPointX(i))) {
+                fail("точка " + i + ": (" + treeXs[i] + "; " + treeYs[i] + "), ожидалась (" + xs[i] + "; " + ys[i] + ")");
+            }
+        }
+        if (!tree.equals(reference) || tree.contentHash() != reference.contentHash()) {
+            fail("equals или contentHash расходятся с DoubleArrayTabulatedFunction");
+        }
+    }
+
+    // Обход дерева через отражение; возвращает его высоту
+    private static int checkStructure(TabulatedFunction tree) throws ReflectiveOperationException {
+        Object node = root.get(tree);
+        Object[] previous = new Object[1];
+        checkNode(node, previous);
+        if (previous[0] != last.get(tree)) {
+            fail("последний узел обхода не совпадает с last");
+        }
+        if (leftmost(node) != first.get(tree)) {
+            fail("первый узел обхода не совпадает с first");
+        }
+        return node == null ? 0 : height.getInt(node);
+    }
+
+    private static Object leftmost(Object node) throws ReflectiveOperationException {
+        while (node != null && left.get(node) != null) {
+            node = left.get(node);
+        }
+        return node;
+    }
+
+    // Симметричный обход: previous[0] - предыдущий узел по порядку X
+    private static void checkNode(Object node, Object[] previous) throws ReflectiveOperationException {
+        if (node == null) {
+            return;
+        }
+        nodesVisited++;
+        Object leftChild = left.get(node);
+        Object rightChild = right.get(node);
+        checkNode(leftChild, previous);
+
+        if (previous[0] != null) {
+            if (!(x.getDouble(previous[0]) < x.getDouble(node))) {
+                fail("нарушен порядок X: " + x.getDouble(previous[0]) + " перед " + x.getDouble(node));
+            }
+            if (next.get(previous[0]) != node) {
+                fail("ссылка next не совпадает с порядком обхода у X = " + x.getDouble(previous[0]));
+            }
+        }
+        if (prev.get(node) != previous[0]) {
+            fail("ссылка prev не совпадает с порядком обхода у X = " + x.getDouble(node));
+        }
+        previous[0] = node;
+
+        checkNode(rightChild, previous);
+
+        int leftHeight = leftChild == null ? 0 : height.getInt(leftChild);
+        int rightHeight = rightChild == null ? 0 : height.getInt(rightChild);
+        if (height.getInt(node) != 1 + Math.max(leftHeight, rightHeight)) {
+            fail("неверная высота у X = " + x.getDouble(node));
+        }
+        if (Math.abs(leftHeight - rightHeight) > 1) {
+            fail("нарушен баланс у X = " + x.getDouble(node) + ": высоты поддеревьев " + leftHeight + " и " + rightHeight);
+        }
+        int leftSize = leftChild == null ? 0 : size.getInt(leftChild);
+        int rightSize = rightChild == null ? 0 : size.getInt(rightChild);
+        if (size.getInt(node) != 1 + leftSize + rightSize) {
+            fail("неверный размер поддерева у X = " + x.getDouble(node));
+        }
+
+        Object following = next.get(node);
+        double segment = following == null ? 0.0
+            : (y.getDouble(node) + y.getDouble(following)) * (x.getDouble(following) - x.getDouble(node)) / 2.0;
+        if (!same(segment, segmentArea.getDouble(node))) {
+            fail("устаревшая площадь трапеции у X = " + x.getDouble(node) + ": " + segmentArea.getDouble(node)
+                + ", ожидалась " + segment);
+        }
+        double sum = segmentArea.getDouble(node) + (leftChild == null ? 0.0 : area.getDouble(leftChild))
+            + (rightChild == null ? 0.0 : area.getDouble(rightChild));
+        if (!same(sum, area.getDouble(node))) {
+            fail("устаревшая площадь поддерева у X = " + x.getDouble(node) + ": " + area.getDouble(node) + ", ожидалась " + sum);
+        }
+    }
+
+    private static void initFields() throws ReflectiveOperationException {
+        Class<?> treeClass = TreeTabulatedFunction.class;
+        Class<?> nodeClass = Class.forName(treeClass.getName() + "$TreeNode");
+        root = accessible(treeClass, "root");
+        first = accessible(treeClass, "first");
+        last = accessible(treeClass, "last");
+        x = accessible(nodeClass, "x");
+        y = accessible(nodeClass, "y");
+        left = accessible(nodeClass, "left");
+        right = accessible(nodeClass, "right");
+        prev = accessible(nodeClass, "prev");
+        next = accessible(nodeClass, "next");
+        height = accessible(nodeClass, "height");
+        size = accessible(nodeClass, "size");
+        segmentArea = accessible(nodeClass, "segmentArea");
+        area = accessible(nodeClass, "area");
+    }
+
+    private static Field accessible(Class<?> type, String name) throws NoSuchFieldException {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+
+    private static boolean same(double a, double b) {
+        return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+    }
+
+    private static void fail(String message) {
+        System.out.println("Расхождение после операции " + operation + ": " + message);
+        System.exit(1);
+    }
+}
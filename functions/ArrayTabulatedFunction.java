@@ -1,4 +1,5 @@
 package functions;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 import java.util.Iterator;
 import java.io.*;
@@ -7,6 +8,13 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable,
     private static final long serialVersionUID = 1L;
     private FunctionPoint[] points;
     private int pointsCount;
+    // Режим равномерной сетки: если шаг по X постоянный, индекс отрезка вычисляется напрямую
+    private boolean uniformGrid;
+    private double gridStep;
+    // Накопленные площади: cumulativeAreas[i] - интеграл от первой точки до i-й; null, если устарел
+    private double[] cumulativeAreas;
+    // Сумма хэшей точек (см. TabulatedFunctions.pointHash), обновляется при каждом изменении
+    private long pointsHash;
 
     // Конструктор по умолчанию для Externalizable
     public ArrayTabulatedFunction() {
@@ -29,6 +37,8 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable,
             double x = leftX + i * step;
             points[i] = new FunctionPoint(x, 0);
         }
+        updateGridMode();
+        recomputeHash();
     }
 
     public ArrayTabulatedFunction(double leftX, double rightX, double[] values) {
@@ -46,6 +56,8 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable,
             double x = leftX + i * step;
             points[i] = new FunctionPoint(x, values[i]);
         }
+        updateGridMode();
+        recomputeHash();
     }
     
     public ArrayTabulatedFunction(FunctionPoint[] points) {
@@ -64,6 +76,8 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable,
         for (int i = 0; i < pointsCount; i++) {
             this.points[i] = new FunctionPoint(points[i]);
         }
+        updateGridMode();
+        recomputeHash();
     }
     
     // Методы интерфейса Function
@@ -129,17 +143,129 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable,
             return Double.NaN;
         }
         
-        for (int i = 0; i < pointsCount - 1; i++) {
+        int i = findSegmentIndex(x);
+        double x1 = points[i].getX();
+        double x2 = points[i + 1].getX();
+        double y1 = points[i].getY();
+        double y2 = points[i + 1].getY();
+        return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    }
+
+    // Возвращает индекс i левого конца отрезка [x(i), x(i+1)], содержащего x (x лежит в области определения)
+    // На равномерной сетке - O(1), иначе бинарный поиск за O(log n)
+    private int findSegmentIndex(double x) {
+        int last = pointsCount - 2;
+        if (uniformGrid) {
+            int i = (int) ((x - points[0].getX()) / gridStep);
+            if (i > last) i = last;
+            if (i < 0) i = 0;
+            // Поправка на погрешность округления при делении
+            // В узле x == x(i+1) выбирается правый отрезок, как и в бинарном поиске ниже (x(mid) <= x):
+            // тогда значение в узле равно y(i+1) точно, а не результату интерполяции по левому отрезку
+            while (i > 0 && x < points[i].getX()) i--;
+            while (i < last && x >= points[i + 1].getX()) i++;
+            return i;
+        }
+        
+        int low = 0;
+        int high = last;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (points[mid].getX() <= x) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    // Точный интеграл кусочно-линейной функции по отрезку [leftBorder, rightBorder]
+    // Накопленные площади трапеций хранятся в индексе, поэтому запрос выполняется за O(log n)
+    @Override
+    public double integrate(double leftBorder, double rightBorder) {
+        Functions.checkIntegrationBorders(this, leftBorder, rightBorder);
+        
+        int i = findSegmentIndex(leftBorder);
+        int j = findSegmentIndex(rightBorder);
+        if (i == j) {
+            // Оба конца в одном отрезке - одна трапеция, без вычитания больших сумм
+            return (valueInSegment(i, leftBorder) + valueInSegment(i, rightBorder)) * (rightBorder - leftBorder) / 2.0;
+        }
+        return areaTo(j, rightBorder) - areaTo(i, leftBorder);
+    }
+
+    // Площадь под графиком от левой границы до x, где x лежит в отрезке с индексом i
+    private double areaTo(int i, double x) {
+        if (cumulativeAreas == null) {
+            double[] areas = new double[pointsCount];
+            for (int k = 1; k < pointsCount; k++) {
+                areas[k] = areas[k - 1] + (points[k - 1].getY() + points[k].getY()) * (points[k].getX() - points[k - 1].getX()) / 2.0;
+            }
+            cumulativeAreas = areas;
+        }
+        return cumulativeAreas[i] + (points[i].getY() + valueInSegment(i, x)) * (x - points[i].getX()) / 2.0;
+    }
+
+    private double valueInSegment(int i, double x) {
+        double x1 = points[i].getX();
+        double y1 = points[i].getY();
+        return y1 + (points[i + 1].getY() - y1) * (x - x1) / (points[i + 1].getX() - x1);
+    }
+
+    // Пакетное вычисление: для возрастающего массива аргументов - один проход по отрезкам, O(n + m)
+    @Override
+    public void getFunctionValues(double[] xs, double[] values) {
+        if (values.length < xs.length) {
+            throw new IllegalArgumentException("Массив результатов короче массива аргументов");
+        }
+        if (!TabulatedFunctions.isSorted(xs)) {
+            for (int k = 0; k < xs.length; k++) {
+                values[k] = getFunctionValue(xs[k]);
+            }
+            return;
+        }
+        
+        double left = getLeftDomainBorder();
+        double right = getRightDomainBorder();
+        int last = pointsCount - 2;
+        int i = -1;
+        for (int k = 0; k < xs.length; k++) {
+            double x = xs[k];
+            if (x < left || x > right) {
+                values[k] = Double.NaN;
+                continue;
+            }
+            if (i < 0) {
+                // Начальный отрезок ищем обычным способом, дальше только двигаемся вправо
+                i = findSegmentIndex(x);
+            }
+            while (i < last && x >= points[i + 1].getX()) {
+                i++;
+            }
             double x1 = points[i].getX();
             double x2 = points[i + 1].getX();
+            double y1 = points[i].getY();
+            double y2 = points[i + 1].getY();
+            values[k] = y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+        }
+    }
 
-            if (x >= x1 && x <= x2) {
-                double y1 = points[i].getY();
-                double y2 = points[i + 1].getY();
-                return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    // Проверяет, образуют ли точки равномерную сетку, и включает/выключает прямое вычисление индекса
+    private void updateGridMode() {
+        uniformGrid = false;
+        if (pointsCount < 2) {
+            return;
+        }
+        double leftX = points[0].getX();
+        double step = (points[pointsCount - 1].getX() - leftX) / (pointsCount - 1);
+        for (int i = 1; i < pointsCount - 1; i++) {
+            if (Math.abs(points[i].getX() - (leftX + i * step)) > 1e-10) {
+                return;
             }
         }
-        return Double.NaN;
+        gridStep = step;
+        uniformGrid = true;
     }
 
     public int getPointsCount(){
@@ -165,7 +291,13 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable,
             throw new InappropriateFunctionPointException("X координата точки нарушает упорядоченность со следующей точкой");
         }
 
+        boolean moved = points[index].getX() != point.getX();
+        pointsHash += TabulatedFunctions.pointHash(point.getX(), point.getY()) - pointHash(index);
         points[index] = new FunctionPoint(point);
+        cumulativeAreas = null;
+        if (moved) {
+            uniformGrid = false;
+        }
     }
     
     public double getPointX(int index) {
@@ -187,7 +319,12 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable,
             throw new InappropriateFunctionPointException("X координата точки нарушает упорядоченность со следующей точкой");
         }
 
-        points[index].setX(x);
+        if (points[index].getX() != x) {
+            pointsHash += TabulatedFunctions.pointHash(x, points[index].getY()) - pointHash(index);
+            points[index].setX(x);
+            uniformGrid = false;
+            cumulativeAreas = null;
+        }
     }
     
     public double getPointY(int index) {
@@ -197,11 +334,29 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable,
         return points[index].getY();
     }
     
+    public void forEachPoint(FunctionPointConsumer action) {
+        for (int i = 0; i < pointsCount; i++) {
+            action.accept(points[i].getX(), points[i].getY());
+        }
+    }
+    
+    // Пакетное копирование координат напрямую из массива точек, без копий FunctionPoint
+    public void copyPoints(int fromIndex, double[] xs, double[] ys, int count) {
+        TabulatedFunctions.checkCopyRange(this, fromIndex, xs, ys, count);
+        for (int i = 0; i < count; i++) {
+            FunctionPoint point = points[fromIndex + i];
+            xs[i] = point.getX();
+            ys[i] = point.getY();
+        }
+    }
+    
     public void setPointY(int index, double y) {
         if (index < 0 || index >= pointsCount) {
             throw new FunctionPointIndexOutOfBoundsException("Индекс " + index + " выходит за границы [0, " + (pointsCount-1) + "]");
         }
+        pointsHash += TabulatedFunctions.pointHash(points[index].getX(), y) - pointHash(index);
         points[index].setY(y);
+        cumulativeAreas = null;
     }
     
     public void deletePoint(int index) {
@@ -213,11 +368,17 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable,
             throw new IllegalStateException("Невозможно удалить точку: количество точек должно быть не менее 3");
         }
         
+        pointsHash -= pointHash(index);
         for (int i = index; i < pointsCount - 1; i++) {
             points[i] = points[i + 1];
         }
         points[pointsCount - 1] = null;
         pointsCount--;
+        cumulativeAreas = null;
+        // Удаление крайней точки сохраняет шаг сетки, удаление внутренней - нарушает его
+        if (index != 0 && index != pointsCount) {
+            uniformGrid = false;
+        }
     }
     
     public void addPoint(FunctionPoint point) throws InappropriateFunctionPointException{
@@ -243,7 +404,67 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable,
         }
         
         points[insertIndex] = new FunctionPoint(point);
+        pointsHash += pointHash(insertIndex);
         pointsCount++;
+        cumulativeAreas = null;
+        uniformGrid = false;
+    }
+    
+    // Пакетное добавление: слияние упорядоченного пакета с массивом точек за один проход, O(n + m log m)
+    public void addPoints(FunctionPoint[] newPoints) throws InappropriateFunctionPointException {
+        double[][] batch = TabulatedFunctions.sortedBatch(newPoints);
+        double[] batchXs = batch[0];
+        double[] batchYs = batch[1];
+        int m = batchXs.length;
+        if (m == 0) {
+            return;
+        }
+
+        // Слияние в новый массив: при совпадении X исключение бросается до изменения функции
+        FunctionPoint[] merged = new FunctionPoint[pointsCount + m + 10];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < pointsCount || j < m) {
+            if (j == m || (i < pointsCount && points[i].getX() < batchXs[j])) {
+                if (j < m && batchXs[j] - points[i].getX() < 1e-10) {
+                    throw new InappropriateFunctionPointException("Точка с X=" + batchXs[j] + " уже существует");
+                }
+                merged[k++] = points[i++];
+            } else {
+                if (i < pointsCount && points[i].getX() - batchXs[j] < 1e-10) {
+                    throw new InappropriateFunctionPointException("Точка с X=" + batchXs[j] + " уже существует");
+                }
+                merged[k++] = new FunctionPoint(batchXs[j], batchYs[j]);
+                j++;
+            }
+        }
+
+        points = merged;
+        pointsCount = k;
+        cumulativeAreas = null;
+        updateGridMode();
+        recomputeHash();
+    }
+
+    // Пакетное удаление диапазона индексов одним сдвигом хвоста
+    public void deletePoints(int fromIndex, int toIndex) {
+        TabulatedFunctions.checkDeleteRange(pointsCount, fromIndex, toIndex);
+        int removed = toIndex - fromIndex;
+        if (removed == 0) {
+            return;
+        }
+        for (int i = fromIndex; i < toIndex; i++) {
+            pointsHash -= pointHash(i);
+        }
+        System.arraycopy(points, toIndex, points, fromIndex, pointsCount - toIndex);
+        Arrays.fill(points, pointsCount - removed, pointsCount, null);
+        // Удаление с края сохраняет шаг сетки, удаление внутренних точек - нарушает его
+        if (fromIndex != 0 && toIndex != pointsCount) {
+            uniformGrid = false;
+        }
+        pointsCount -= removed;
+        cumulativeAreas = null;
     }
     
     public void printTabulatedFunction() {
@@ -272,35 +493,28 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable,
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof TabulatedFunction)) return false;//instanceof - Проверяет, является ли объект 'o' экземпляром класса TabulatedFunction
-        
-        TabulatedFunction that = (TabulatedFunction) o;
-        
-        if (this.getPointsCount() != that.getPointsCount()) return false;
-        
-        if (o instanceof ArrayTabulatedFunction) {
-            ArrayTabulatedFunction arrayThat = (ArrayTabulatedFunction) o;
-            for (int i = 0; i < pointsCount; i++) {
-                if (!this.points[i].equals(arrayThat.points[i])) {
-                    return false;
-                }
-            }
-        } else {
-            for (int i = 0; i < pointsCount; i++) {
-                if (!this.getPoint(i).equals(that.getPoint(i))) {
-                    return false;
-                }
-            }
-        }
-        
-        return true;// Если все проверки пройдены - true
+        return TabulatedFunctions.contentEquals(this, (TabulatedFunction) o);
+    }
+    @Override
+    public long contentHash() {
+        return TabulatedFunctions.contentHash(pointsHash);
     }
+
     @Override
     public int hashCode() {
-        int hash = pointsCount;
+        return TabulatedFunctions.hashCode(contentHash());
+    }
+
+    private long pointHash(int index) {
+        return TabulatedFunctions.pointHash(points[index].getX(), points[index].getY());
+    }
+
+    // Полный пересчет хэша после построения или слияния всех точек
+    private void recomputeHash() {
+        pointsHash = 0;
         for (int i = 0; i < pointsCount; i++) {
-            hash ^= points[i].hashCode();
+            pointsHash += pointHash(i);
         }
-        return hash;
     }
     
     @Override
@@ -313,6 +527,9 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable,
         ArrayTabulatedFunction cloned = new ArrayTabulatedFunction();
         cloned.points = clonedPoints;
         cloned.pointsCount = this.pointsCount;
+        cloned.uniformGrid = this.uniformGrid;
+        cloned.gridStep = this.gridStep;
+        cloned.pointsHash = this.pointsHash;
         return cloned;
     }
     
@@ -335,5 +552,8 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Serializable,
             double y = in.readDouble();
             points[i] = new FunctionPoint(x, y);
         }
+        updateGridMode();
+        recomputeHash();
+        cumulativeAreas = null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,241 @@
+package functions;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+// Декоратор, запоминающий значения дорогой функции (глубокие композиции, пользовательские модели),
+// которую многократно вычисляют в одних и тех же точках при интегрировании и табулировании
+// Кэш ограничен: записи разбиты на наборы по WAYS ячеек, аргумент попадает в набор по хэшу своего ключа,
+// а при заполненном наборе вытесняется запись, к которой дольше всего не обращались (LRU внутри набора)
+// Ключ - точные биты аргумента или, если задан шаг quantum, номер узла k = rint(x / quantum); во втором случае
+// функция вычисляется в узле k * quantum, и это значение возвращается для всех x, округляющихся к узлу
+// Если узел k * quantum не лежит строго внутри области определения (x у ее границы), кэш не используется
+// и функция вычисляется в самой точке x: иначе для допустимого x возвращалось бы значение вне области,
+// обычно NaN; узел на самой границе тоже пропускается, так как граница может не входить в область (Log в 0)
+// Ключи и значения хранятся в массивах long[] и double[], поэтому попадание в кэш не создает объектов
+// Наборы сгруппированы в сегменты со своей StampedLock: чтение оптимистично, запись блокирует один сегмент
+// Декорируемая функция вычисляется вне блокировок и должна допускать одновременные вызовы из разных потоков;
+// если она изменяется (например, табулированная функция), после изменения нужно вызвать clear()
+public class CachedFunction implements Function {
+    // Количество ячеек в наборе
+    private static final int WAYS = 8;
+    private static final int MAX_SEGMENTS = 64;
+    private static final int MAX_CAPACITY = 1 << 30;
+    // При |x / quantum| >= 2^52 номер узла не отличает соседние аргументы - такие x вычисляются без кэша
+    private static final double MAX_QUANTIZED = 0x1p52;
+
+    private final Function function;
+    private final double quantum;
+    private final int setMask;
+    private final int segmentMask;
+    private final StampedLock[] locks;
+    // Счетчик вставок каждого сегмента; меняется только под блокировкой записи
+    private final long[] clocks;
+
+    // Ячейка i: занятость, ключ, значение и время последнего обращения (значение счетчика сегмента)
+    // used, keys и values меняются только под блокировкой записи; ticks обновляется и читателями -
+    // гонка при этом влияет только на порядок вытеснения
+    private final boolean[] used;
+    private final long[] keys;
+    private final double[] values;
+    private final long[] ticks;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Кэш по точным значениям аргумента не менее чем на capacity записей
+    public CachedFunction(Function function, int capacity) {
+        this(function, capacity, 0.0);
+    }
+
+    // quantum > 0 - аргументы округляются к ближайшему узлу сетки с этим шагом, 0 - точные ключи
+    public CachedFunction(Function function, int capacity, double quantum) {
+        if (function == null) {
+            throw new IllegalArgumentException("Функция не может быть null");
+        }
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Емкость кэша должна быть от 1 до " + MAX_CAPACITY);
+        }
+        if (!(quantum >= 0) || Double.isInfinite(quantum)) {
+            throw new IllegalArgumentException("Шаг округления аргумента должен быть конечным неотрицательным числом");
+        }
+        this.function = function;
+        this.quantum = quantum;
+
+        // Количество наборов - степень двойки, поэтому фактическая емкость может быть больше запрошенной
+        int sets = Integer.highestOneBit(Math.max((capacity + WAYS - 1) / WAYS, 1) * 2 - 1);
+        int segments = Math.min(sets, MAX_SEGMENTS);
+        setMask = sets - 1;
+        segmentMask = segments - 1;
+        locks = new StampedLock[segments];
+        for (int i = 0; i < segments; i++) {
+            locks[i] = new StampedLock();
+        }
+        clocks = new long[segments];
+
+        int slots = sets * WAYS;
+        used = new boolean[slots];
+        keys = new long[slots];
+        values = new double[slots];
+        ticks = new long[slots];
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    public int getCapacity() {
+        return used.length;
+    }
+
+    public double getQuantum() {
+        return quantum;
+    }
+
+    public double getLeftDomainBorder() {
+        return function.getLeftDomainBorder();
+    }
+
+    public double getRightDomainBorder() {
+        return function.getRightDomainBorder();
+    }
+
+    public double getFunctionValue(double x) {
+        long key;
+        double argument;
+        if (quantum == 0.0) {
+            key = Double.doubleToLongBits(x);
+            argument = x;
+        } else {
+            double node = Math.rint(x / quantum);
+            if (!(Math.abs(node) < MAX_QUANTIZED)) {
+                return function.getFunctionValue(x);
+            }
+            argument = node * quantum;
+            if (!(argument > function.getLeftDomainBorder() && argument < function.getRightDomainBorder())) {
+                return function.getFunctionValue(x);
+            }
+            key = (long) node;
+        }
+
+        int set = (int) TabulatedFunctions.mix(key) & setMask;
+        int segment = set & segmentMask;
+        int base = set * WAYS;
+        StampedLock lock = locks[segment];
+
+        long stamp = lock.tryOptimisticRead();
+        int slot = find(base, key);
+        double value = slot >= 0 ? values[slot] : 0.0;
+        long clock = clocks[segment];
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                slot = find(base, key);
+                value = slot >= 0 ? values[slot] : 0.0;
+                clock = clocks[segment];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (slot >= 0) {
+            ticks[slot] = clock;
+            hits.increment();
+            return value;
+        }
+
+        misses.increment();
+        value = function.getFunctionValue(argument);
+        store(segment, base, key, value);
+        return value;
+    }
+
+    // Индекс ячейки набора с ключом key или -1
+    private int find(int base, long key) {
+        for (int i = base; i < base + WAYS; i++) {
+            if (used[i] && keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Запись значения: в ячейку с тем же ключом (его мог вставить другой поток), в свободную ячейку
+    // или на место давно не использовавшейся записи
+    private void store(int segment, int base, long key, double value) {
+        StampedLock lock = locks[segment];
+        long stamp = lock.writeLock();
+        try {
+            int slot = find(base, key);
+            if (slot < 0) {
+                slot = base;
+                for (int i = base; i < base + WAYS; i++) {
+                    if (!used[i]) {
+                        slot = i;
+                        break;
+                    }
+                    if (ticks[i] < ticks[slot]) {
+                        slot = i;
+                    }
+                }
+                if (used[slot]) {
+                    evictions.increment();
+                }
+                used[slot] = true;
+                keys[slot] = key;
+            }
+            values[slot] = value;
+            ticks[slot] = ++clocks[segment];
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Удаляет все записи; статистика сохраняется
+    public void clear() {
+        int sets = setMask + 1;
+        for (int segment = 0; segment < locks.length; segment++) {
+            long stamp = locks[segment].writeLock();
+            try {
+                for (int set = segment; set < sets; set += locks.length) {
+                    Arrays.fill(used, set * WAYS, (set + 1) * WAYS, false);
+                }
+            } finally {
+                locks[segment].unlockWrite(stamp);
+            }
+        }
+    }
+
+    // Статистика с момента создания или последнего resetStatistics
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    // Доля обращений, обслуженных кэшем; 0, если обращений не было
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long requests = hitCount + misses.sum();
+        return requests == 0 ? 0.0 : (double) hitCount / requests;
+    }
+
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "CachedFunction{capacity=" + getCapacity() + ", hits=" + getHitCount()
+            + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "}";
+    }
+}
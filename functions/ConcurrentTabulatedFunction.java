@@ -0,0 +1,645 @@
+package functions;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Iterator;
+import java.util.concurrent.locks.StampedLock;
+import java.io.*;
+
+// Потокобезопасная табулированная функция для сценария "один писатель - много читателей"
+// Координаты хранятся в двух массивах примитивов, как в DoubleArrayTabulatedFunction, под защитой StampedLock:
+// вычисление значения и чтение отдельных точек выполняются оптимистично - без блокировки и без записи в общую
+// память, поэтому читатели не мешают друг другу; если за время чтения произошла запись, чтение повторяется
+// под блокировкой чтения. Изменения выполняются под блокировкой записи с теми же проверками упорядоченности.
+public class ConcurrentTabulatedFunction implements TabulatedFunction, Serializable, Externalizable {
+    private static final long serialVersionUID = 1L;
+    private final StampedLock lock = new StampedLock();
+    private double[] xs;
+    private double[] ys;
+    private int pointsCount;
+    // Режим равномерной сетки: если шаг по X постоянный, индекс отрезка вычисляется напрямую
+    private boolean uniformGrid;
+    private double gridStep;
+    // Накопленные площади для integrate: строятся под блокировкой чтения при первом запросе,
+    // сбрасываются под блокировкой записи при каждом изменении; null, если устарели
+    private volatile double[] cumulativeAreas;
+    // Сумма хэшей точек (см. TabulatedFunctions.pointHash), обновляется под блокировкой записи
+    private long pointsHash;
+
+    // Конструктор по умолчанию для Externalizable
+    public ConcurrentTabulatedFunction() {
+        xs = new double[10];
+        ys = new double[10];
+        pointsCount = 0;
+    }
+
+    public ConcurrentTabulatedFunction(double leftX, double rightX, int pointsCount) {
+        this(leftX, rightX, new double[Math.max(pointsCount, 0)]);
+    }
+
+    public ConcurrentTabulatedFunction(double leftX, double rightX, double[] values) {
+        this(leftX, rightX, values, false);
+    }
+
+    // adopt = true - массив values становится массивом ординат без копирования (используется
+    // TabulatedFunctions.tabulate для только что вычисленного массива, на который больше никто не ссылается)
+    ConcurrentTabulatedFunction(double leftX, double rightX, double[] values, boolean adopt) {
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
+        }
+        if (values.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        this.pointsCount = values.length;
+        this.xs = new double[adopt ? pointsCount : pointsCount + 10];
+        double step = (rightX - leftX) / (pointsCount - 1);
+        for (int i = 0; i < pointsCount; i++) {
+            xs[i] = leftX + i * step;
+        }
+        if (adopt) {
+            this.ys = values;
+        } else {
+            this.ys = new double[pointsCount + 10];
+            System.arraycopy(values, 0, ys, 0, pointsCount);
+        }
+        updateGridMode();
+        recomputeHash();
+    }
+
+    public ConcurrentTabulatedFunction(FunctionPoint[] points) {
+        if (points.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        for (int i = 1; i < points.length; i++) {
+            if (points[i].getX() - points[i-1].getX() <= 1e-10) {
+                throw new IllegalArgumentException("Точки не упорядочены по возрастанию x");
+            }
+        }
+
+        this.pointsCount = points.length;
+        this.xs = new double[pointsCount + 10];
+        this.ys = new double[pointsCount + 10];
+        for (int i = 0; i < pointsCount; i++) {
+            xs[i] = points[i].getX();
+            ys[i] = points[i].getY();
+        }
+        updateGridMode();
+        recomputeHash();
+    }
+
+    // Итератор обходит копию точек, сделанную при его создании, и не видит последующих изменений
+    @Override
+    public Iterator<FunctionPoint> iterator() {
+        double[][] points = snapshotPoints();
+        return new Iterator<FunctionPoint>() {
+            private int currentIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                return currentIndex < points[0].length;
+            }
+
+            @Override
+            public FunctionPoint next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("Нет следующего элемента");
+                }
+                FunctionPoint point = new FunctionPoint(points[0][currentIndex], points[1][currentIndex]);
+                currentIndex++;
+                return point;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Удаление не поддерживается");
+            }
+        };
+    }
+
+    public static class ConcurrentTabulatedFunctionFactory implements TabulatedFunctionFactory {
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount) {
+            return new ConcurrentTabulatedFunction(leftX, rightX, pointsCount);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, double[] values) {
+            return new ConcurrentTabulatedFunction(leftX, rightX, values);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(FunctionPoint[] points) {
+            return new ConcurrentTabulatedFunction(points);
+        }
+    }
+
+    public double getLeftDomainBorder() {
+        long stamp = lock.tryOptimisticRead();
+        double left = xs[0];
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                left = xs[0];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return left;
+    }
+
+    public double getRightDomainBorder() {
+        long stamp = lock.tryOptimisticRead();
+        double[] xs = this.xs;
+        int count = pointsCount;
+        double right = count > 0 && count <= xs.length ? xs[count - 1] : Double.NaN;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                right = this.xs[pointsCount - 1];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return right;
+    }
+
+    public double getFunctionValue(double x) {
+        long stamp = lock.tryOptimisticRead();
+        double value = valueAt(x);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = valueAt(x);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    // Значение функции по текущему состоянию. При оптимистичном чтении состояние может быть несогласованным
+    // (например, массивы уже заменены, а количество точек еще нет), поэтому индексы ограничиваются длинами
+    // прочитанных массивов: неверный результат в этом случае отбрасывается после validate
+    private double valueAt(double x) {
+        double[] xs = this.xs;
+        double[] ys = this.ys;
+        int count = Math.min(pointsCount, Math.min(xs.length, ys.length));
+        if (count < 2 || x < xs[0] || x > xs[count - 1]) {
+            return Double.NaN;
+        }
+
+        int i = TabulatedFunctions.findSegmentIndex(xs, count, uniformGrid, gridStep, x);
+        return TabulatedFunctions.valueInSegment(xs, ys, i, x);
+    }
+
+    // Пакетное вычисление выполняется под одной блокировкой чтения: все значения относятся к одной версии таблицы
+    @Override
+    public void getFunctionValues(double[] args, double[] values) {
+        long stamp = lock.readLock();
+        try {
+            TabulatedFunctions.functionValues(xs, ys, pointsCount, uniformGrid, gridStep, args, values);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Точный интеграл за O(log n) по накопленным площадям; все данные читаются под одной блокировкой чтения
+    @Override
+    public double integrate(double leftBorder, double rightBorder) {
+        long stamp = lock.readLock();
+        try {
+            Functions.checkIntegrationBorders(this, leftBorder, rightBorder);
+            // Писатели ждут снятия блокировки чтения, поэтому построенный массив соответствует текущей версии;
+            // одновременное построение в нескольких читателях дает одинаковые массивы
+            double[] areas = cumulativeAreas;
+            if (areas == null) {
+                areas = TabulatedFunctions.cumulativeAreas(xs, ys, pointsCount);
+                cumulativeAreas = areas;
+            }
+            return TabulatedFunctions.integrate(xs, ys, pointsCount, uniformGrid, gridStep, areas,
+                leftBorder, rightBorder);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Вызывается только при монопольном доступе (конструкторы, блокировка записи)
+    private void updateGridMode() {
+        double step = TabulatedFunctions.uniformGridStep(xs, pointsCount);
+        uniformGrid = !Double.isNaN(step);
+        gridStep = uniformGrid ? step : 0.0;
+    }
+
+    private static void checkIndex(int index, int count) {
+        if (index < 0 || index >= count) {
+            throw new FunctionPointIndexOutOfBoundsException("Индекс " + index + " выходит за границы [0, " + (count-1) + "]");
+        }
+    }
+
+    // Согласованная копия координат: {xs, ys} длины pointsCount
+    private double[][] snapshotPoints() {
+        long stamp = lock.readLock();
+        try {
+            return new double[][] {Arrays.copyOf(xs, pointsCount), Arrays.copyOf(ys, pointsCount)};
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Снимок делается под одной блокировкой чтения, поэтому количество точек, координаты и хэш согласованы
+    @Override
+    public ImmutableTabulatedFunction snapshot() {
+        long stamp = lock.readLock();
+        try {
+            return new ImmutableTabulatedFunction(Arrays.copyOf(xs, pointsCount), Arrays.copyOf(ys, pointsCount),
+                TabulatedFunctions.contentHash(pointsHash));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int getPointsCount() {
+        long stamp = lock.tryOptimisticRead();
+        int count = pointsCount;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                count = pointsCount;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return count;
+    }
+
+    public FunctionPoint getPoint(int index) {
+        long stamp = lock.readLock();
+        try {
+            checkIndex(index, pointsCount);
+            return new FunctionPoint(xs[index], ys[index]);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // X и Y заменяются атомарно: читатели не увидят точку с новым X и старым Y
+    public void setPoint(int index, FunctionPoint point) throws InappropriateFunctionPointException {
+        long stamp = lock.writeLock();
+        try {
+            updatePointX(index, point.getX());
+            pointsHash += TabulatedFunctions.pointHash(xs[index], point.getY()) - pointHash(index);
+            ys[index] = point.getY();
+            cumulativeAreas = null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public double getPointX(int index) {
+        long stamp = lock.tryOptimisticRead();
+        double[] xs = this.xs;
+        int count = pointsCount;
+        double x = index >= 0 && index < count && index < xs.length ? xs[index] : 0.0;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                count = pointsCount;
+                x = index >= 0 && index < count ? this.xs[index] : 0.0;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        checkIndex(index, count);
+        return x;
+    }
+
+    public void setPointX(int index, double x) throws InappropriateFunctionPointException {
+        long stamp = lock.writeLock();
+        try {
+            updatePointX(index, x);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Вызывается под блокировкой записи
+    private void updatePointX(int index, double x) throws InappropriateFunctionPointException {
+        checkIndex(index, pointsCount);
+
+        if (index > 0 && x <= xs[index - 1] + 1e-10) {
+            throw new InappropriateFunctionPointException("X координата точки нарушает упорядоченность с предыдущей точкой");
+        }
+        if (index < pointsCount - 1 && x >= xs[index + 1] - 1e-10) {
+            throw new InappropriateFunctionPointException("X координата точки нарушает упорядоченность со следующей точкой");
+        }
+
+        if (xs[index] != x) {
+            pointsHash += TabulatedFunctions.pointHash(x, ys[index]) - pointHash(index);
+            xs[index] = x;
+            uniformGrid = false;
+            cumulativeAreas = null;
+        }
+    }
+
+    public double getPointY(int index) {
+        long stamp = lock.tryOptimisticRead();
+        double[] ys = this.ys;
+        int count = pointsCount;
+        double y = index >= 0 && index < count && index < ys.length ? ys[index] : 0.0;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                count = pointsCount;
+                y = index >= 0 && index < count ? this.ys[index] : 0.0;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        checkIndex(index, count);
+        return y;
+    }
+
+    public void setPointY(int index, double y) {
+        long stamp = lock.writeLock();
+        try {
+            checkIndex(index, pointsCount);
+            pointsHash += TabulatedFunctions.pointHash(xs[index], y) - pointHash(index);
+            ys[index] = y;
+            cumulativeAreas = null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Обход копии точек: action вызывается вне блокировки и может изменять эту же функцию
+    public void forEachPoint(FunctionPointConsumer action) {
+        double[][] points = snapshotPoints();
+        for (int i = 0; i < points[0].length; i++) {
+            action.accept(points[0][i], points[1][i]);
+        }
+    }
+
+    public void copyPoints(int fromIndex, double[] xs, double[] ys, int count) {
+        long stamp = lock.readLock();
+        try {
+            TabulatedFunctions.checkCopyRange(this, fromIndex, xs, ys, count);
+            System.arraycopy(this.xs, fromIndex, xs, 0, count);
+            System.arraycopy(this.ys, fromIndex, ys, 0, count);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void deletePoint(int index) {
+        long stamp = lock.writeLock();
+        try {
+            checkIndex(index, pointsCount);
+
+            if (pointsCount < 3) {
+                throw new IllegalStateException("Невозможно удалить точку: количество точек должно быть не менее 3");
+            }
+
+            pointsHash -= pointHash(index);
+            System.arraycopy(xs, index + 1, xs, index, pointsCount - index - 1);
+            System.arraycopy(ys, index + 1, ys, index, pointsCount - index - 1);
+            pointsCount--;
+            cumulativeAreas = null;
+            // Удаление крайней точки сохраняет шаг сетки, удаление внутренней - нарушает его
+            if (index != 0 && index != pointsCount) {
+                uniformGrid = false;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void addPoint(FunctionPoint point) throws InappropriateFunctionPointException {
+        double x = point.getX();
+        long stamp = lock.writeLock();
+        try {
+            // Бинарный поиск позиции вставки: первый индекс с xs[i] >= x
+            int low = 0;
+            int high = pointsCount;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (xs[mid] < x) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int insertIndex = low;
+
+            if ((insertIndex < pointsCount && Math.abs(xs[insertIndex] - x) < 1e-10)
+                    || (insertIndex > 0 && Math.abs(xs[insertIndex - 1] - x) < 1e-10)) {
+                throw new InappropriateFunctionPointException("Точка с X=" + x + " уже существует");
+            }
+
+            if (pointsCount >= xs.length) {
+                xs = Arrays.copyOf(xs, xs.length * 2);
+                ys = Arrays.copyOf(ys, ys.length * 2);
+            }
+
+            System.arraycopy(xs, insertIndex, xs, insertIndex + 1, pointsCount - insertIndex);
+            System.arraycopy(ys, insertIndex, ys, insertIndex + 1, pointsCount - insertIndex);
+            xs[insertIndex] = x;
+            ys[insertIndex] = point.getY();
+            pointsHash += pointHash(insertIndex);
+            pointsCount++;
+            uniformGrid = false;
+            cumulativeAreas = null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Пакет вливается под одной блокировкой записи: читатели видят либо всю таблицу до вставки, либо после
+    public void addPoints(FunctionPoint[] points) throws InappropriateFunctionPointException {
+        double[][] batch = TabulatedFunctions.sortedBatch(points);
+        if (batch[0].length == 0) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            int count = pointsCount + batch[0].length;
+            double[][] merged = TabulatedFunctions.mergeBatch(xs, ys, pointsCount, batch, count + 10);
+            xs = merged[0];
+            ys = merged[1];
+            pointsCount = count;
+            cumulativeAreas = null;
+            updateGridMode();
+            recomputeHash();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void deletePoints(int fromIndex, int toIndex) {
+        long stamp = lock.writeLock();
+        try {
+            removeRange(fromIndex, toIndex);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Поиск диапазона и удаление выполняются под одной блокировкой записи
+    public int deletePointsBetween(double leftX, double rightX) {
+        if (!(leftX <= rightX)) {
+            throw new IllegalArgumentException("Левая граница диапазона больше правой");
+        }
+        long stamp = lock.writeLock();
+        try {
+            int fromIndex = countPointsBelow(leftX, false);
+            int toIndex = countPointsBelow(rightX, true);
+            if (fromIndex < toIndex) {
+                removeRange(fromIndex, toIndex);
+            }
+            return toIndex - fromIndex;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Вызывается под блокировкой записи; StampedLock не реентерабелен, поэтому методы, берущие блокировку, здесь не вызываются
+    private void removeRange(int fromIndex, int toIndex) {
+        TabulatedFunctions.checkDeleteRange(pointsCount, fromIndex, toIndex);
+        for (int i = fromIndex; i < toIndex; i++) {
+            pointsHash -= pointHash(i);
+        }
+        System.arraycopy(xs, toIndex, xs, fromIndex, pointsCount - toIndex);
+        System.arraycopy(ys, toIndex, ys, fromIndex, pointsCount - toIndex);
+        if (fromIndex < toIndex && fromIndex != 0 && toIndex != pointsCount) {
+            uniformGrid = false;
+        }
+        pointsCount -= toIndex - fromIndex;
+        cumulativeAreas = null;
+    }
+
+    // Количество точек с x < bound (или x <= bound при inclusive)
+    private int countPointsBelow(double bound, boolean inclusive) {
+        int low = 0;
+        int high = pointsCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (xs[mid] < bound || inclusive && xs[mid] == bound) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public void printTabulatedFunction() {
+        double[][] points = snapshotPoints();
+        for (int i = 0; i < points[0].length; i++) {
+            System.out.println("x = " + points[0][i] + ", y = " + points[1][i]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        double[][] points = snapshotPoints();
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (int i = 0; i < points[0].length; i++) {
+            sb.append("(").append(points[0][i]).append("; ").append(points[1][i]).append(")");
+            if (i < points[0].length - 1) {
+                sb.append(", ");
+            }
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    // Сравнивается снимок этой функции (его хэш уже известен); блокировка не удерживается во время обращения к другому объекту
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TabulatedFunction)) return false;
+        return TabulatedFunctions.contentEquals(snapshot(), (TabulatedFunction) o);
+    }
+
+    @Override
+    public long contentHash() {
+        long stamp = lock.tryOptimisticRead();
+        long hash = pointsHash;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                hash = pointsHash;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return TabulatedFunctions.contentHash(hash);
+    }
+
+    @Override
+    public int hashCode() {
+        return TabulatedFunctions.hashCode(contentHash());
+    }
+
+    // Вызываются под блокировкой записи (или до публикации объекта)
+    private long pointHash(int index) {
+        return TabulatedFunctions.pointHash(xs[index], ys[index]);
+    }
+
+    private void recomputeHash() {
+        pointsHash = 0;
+        for (int i = 0; i < pointsCount; i++) {
+            pointsHash += pointHash(i);
+        }
+    }
+
+    // Копия получает собственную блокировку
+    @Override
+    public Object clone() {
+        ConcurrentTabulatedFunction cloned = new ConcurrentTabulatedFunction();
+        long stamp = lock.readLock();
+        try {
+            cloned.xs = xs.clone();
+            cloned.ys = ys.clone();
+            cloned.pointsCount = this.pointsCount;
+            cloned.uniformGrid = this.uniformGrid;
+            cloned.gridStep = this.gridStep;
+            cloned.pointsHash = this.pointsHash;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        return cloned;
+    }
+
+    // Методы Externalizable - формат совпадает с ArrayTabulatedFunction
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        double[][] points = snapshotPoints();
+        out.writeInt(points[0].length);
+        for (int i = 0; i < points[0].length; i++) {
+            out.writeDouble(points[0][i]);
+            out.writeDouble(points[1][i]);
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        long stamp = lock.writeLock();
+        try {
+            pointsCount = in.readInt();
+            xs = new double[pointsCount + 10];
+            ys = new double[pointsCount + 10];
+            for (int i = 0; i < pointsCount; i++) {
+                xs[i] = in.readDouble();
+                ys[i] = in.readDouble();
+            }
+            cumulativeAreas = null;
+            updateGridMode();
+            recomputeHash();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+}
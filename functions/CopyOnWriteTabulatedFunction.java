@@ -0,0 +1,205 @@
+package functions;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReference;
+import java.io.Serializable;
+
+// Табулированная функция с копированием при записи для редко изменяемых и постоянно читаемых таблиц
+// Текущая версия - неизменяемый ImmutableTabulatedFunction в AtomicReference: чтение - одно volatile-чтение ссылки
+// и обращение к неизменяемым массивам без блокировок, поэтому производительность чтения растет с числом ядер.
+// Каждое изменение строит новую версию (O(n)) и публикует ее через compareAndSet; при гонке писателей
+// изменение повторяется над более новой версией, так что ни одно из них не теряется.
+public class CopyOnWriteTabulatedFunction implements TabulatedFunction, Serializable {
+    private static final long serialVersionUID = 1L;
+    private final AtomicReference<ImmutableTabulatedFunction> current;
+
+    public CopyOnWriteTabulatedFunction(double leftX, double rightX, int pointsCount) {
+        this(new ImmutableTabulatedFunction(leftX, rightX, pointsCount));
+    }
+
+    public CopyOnWriteTabulatedFunction(double leftX, double rightX, double[] values) {
+        this(new ImmutableTabulatedFunction(leftX, rightX, values));
+    }
+
+    public CopyOnWriteTabulatedFunction(FunctionPoint[] points) {
+        this(new ImmutableTabulatedFunction(points));
+    }
+
+    public CopyOnWriteTabulatedFunction(ImmutableTabulatedFunction initial) {
+        current = new AtomicReference<>(initial);
+    }
+
+    public static class CopyOnWriteTabulatedFunctionFactory implements TabulatedFunctionFactory {
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount) {
+            return new CopyOnWriteTabulatedFunction(leftX, rightX, pointsCount);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, double[] values) {
+            return new CopyOnWriteTabulatedFunction(leftX, rightX, values);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(FunctionPoint[] points) {
+            return new CopyOnWriteTabulatedFunction(points);
+        }
+    }
+
+    // Текущая версия без копирования: последовательность обращений к ней видит одно и то же состояние
+    @Override
+    public ImmutableTabulatedFunction snapshot() {
+        return current.get();
+    }
+
+    // Замена всей таблицы, например после ее перестроения
+    public void publish(TabulatedFunction function) {
+        current.set(ImmutableTabulatedFunction.copyOf(function));
+    }
+
+    // Условная замена: новая версия публикуется, только если текущей все еще является expected
+    public boolean compareAndPublish(ImmutableTabulatedFunction expected, ImmutableTabulatedFunction function) {
+        return current.compareAndSet(expected, function);
+    }
+
+    // Изменение одной версии в новую; E - проверяемое исключение изменения (для setPointY, deletePoint
+    // и т.п. выводится RuntimeException, поэтому один цикл публикации обслуживает все методы изменения)
+    private interface Update<E extends Exception> {
+        ImmutableTabulatedFunction apply(ImmutableTabulatedFunction version) throws E;
+    }
+
+    // Единственный цикл публикации: при гонке писателей update применяется заново к более новой версии,
+    // поэтому последний вызов update.apply соответствует опубликованной версии
+    private <E extends Exception> void update(Update<E> update) throws E {
+        while (true) {
+            ImmutableTabulatedFunction version = current.get();
+            if (current.compareAndSet(version, update.apply(version))) {
+                return;
+            }
+        }
+    }
+
+    public double getLeftDomainBorder() {
+        return current.get().getLeftDomainBorder();
+    }
+
+    public double getRightDomainBorder() {
+        return current.get().getRightDomainBorder();
+    }
+
+    public double getFunctionValue(double x) {
+        return current.get().getFunctionValue(x);
+    }
+
+    @Override
+    public void getFunctionValues(double[] args, double[] values) {
+        current.get().getFunctionValues(args, values);
+    }
+
+    @Override
+    public double integrate(double leftBorder, double rightBorder) {
+        return current.get().integrate(leftBorder, rightBorder);
+    }
+
+    public int getPointsCount() {
+        return current.get().getPointsCount();
+    }
+
+    public FunctionPoint getPoint(int index) {
+        return current.get().getPoint(index);
+    }
+
+    public double getPointX(int index) {
+        return current.get().getPointX(index);
+    }
+
+    public double getPointY(int index) {
+        return current.get().getPointY(index);
+    }
+
+    // Обход и копирование выполняются над одной версией, даже если во время них публикуется новая
+    public void forEachPoint(FunctionPointConsumer action) {
+        current.get().forEachPoint(action);
+    }
+
+    public void copyPoints(int fromIndex, double[] xs, double[] ys, int count) {
+        current.get().copyPoints(fromIndex, xs, ys, count);
+    }
+
+    @Override
+    public Iterator<FunctionPoint> iterator() {
+        return current.get().iterator();
+    }
+
+    public void setPoint(int index, FunctionPoint point) throws InappropriateFunctionPointException {
+        update(version -> version.withPoint(index, point));
+    }
+
+    public void setPointX(int index, double x) throws InappropriateFunctionPointException {
+        update(version -> version.withPointX(index, x));
+    }
+
+    public void setPointY(int index, double y) {
+        update(version -> version.withPointY(index, y));
+    }
+
+    public void deletePoint(int index) {
+        update(version -> version.withoutPoint(index));
+    }
+
+    public void addPoint(FunctionPoint point) throws InappropriateFunctionPointException {
+        update(version -> version.withAddedPoint(point));
+    }
+
+    public void addPoints(FunctionPoint[] points) throws InappropriateFunctionPointException {
+        update(version -> version.withAddedPoints(points));
+    }
+
+    public void deletePoints(int fromIndex, int toIndex) {
+        update(version -> version.withoutPoints(fromIndex, toIndex));
+    }
+
+    // Диапазон индексов определяется в той же версии, которая заменяется; количество удаленных точек
+    // берется из последнего применения, то есть из опубликованной версии
+    public int deletePointsBetween(double leftX, double rightX) {
+        int[] removed = new int[1];
+        update(version -> {
+            ImmutableTabulatedFunction updated = version.withoutPointsBetween(leftX, rightX);
+            removed[0] = version.getPointsCount() - updated.getPointsCount();
+            return updated;
+        });
+        return removed[0];
+    }
+
+    public void printTabulatedFunction() {
+        current.get().printTabulatedFunction();
+    }
+
+    @Override
+    public String toString() {
+        return current.get().toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return current.get().equals(o);
+    }
+
+    // Хэш текущей версии; каждая версия вычисляет его не более одного раза
+    @Override
+    public long contentHash() {
+        return current.get().contentHash();
+    }
+
+    @Override
+    public int hashCode() {
+        return current.get().hashCode();
+    }
+
+    // Копия начинает с той же неизменяемой версии - копировать массивы не нужно
+    @Override
+    public Object clone() {
+        return new CopyOnWriteTabulatedFunction(current.get());
+    }
+}
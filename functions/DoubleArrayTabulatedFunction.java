@@ -0,0 +1,434 @@
+package functions;
+import java.util.NoSuchElementException;
+import java.util.Iterator;
+import java.io.*;
+
+// Табулированная функция, хранящая координаты в двух параллельных массивах примитивов
+// В отличие от ArrayTabulatedFunction не создает отдельный объект FunctionPoint на каждую точку
+public class DoubleArrayTabulatedFunction implements TabulatedFunction, Serializable, Externalizable {
+    private static final long serialVersionUID = 1L;
+    private double[] xs;
+    private double[] ys;
+    private int pointsCount;
+    // Режим равномерной сетки: если шаг по X постоянный, индекс отрезка вычисляется напрямую
+    private boolean uniformGrid;
+    private double gridStep;
+    // Накопленные площади: cumulativeAreas[i] - интеграл от первой точки до i-й; null, если устарел
+    private double[] cumulativeAreas;
+    // Сумма хэшей точек (см. TabulatedFunctions.pointHash), обновляется при каждом изменении
+    private long pointsHash;
+
+    // Конструктор по умолчанию для Externalizable
+    public DoubleArrayTabulatedFunction() {
+        xs = new double[10];
+        ys = new double[10];
+        pointsCount = 0;
+    }
+
+    public DoubleArrayTabulatedFunction(double leftX, double rightX, int pointsCount) {
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
+        }
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        this.pointsCount = pointsCount;
+        this.xs = new double[pointsCount + 10];
+        this.ys = new double[pointsCount + 10];
+        double step = (rightX - leftX) / (pointsCount - 1);
+        for (int i = 0; i < pointsCount; i++) {
+            xs[i] = leftX + i * step;
+        }
+        updateGridMode();
+        recomputeHash();
+    }
+
+    public DoubleArrayTabulatedFunction(double leftX, double rightX, double[] values) {
+        this(leftX, rightX, values, false);
+    }
+
+    // adopt = true - массив values становится массивом ординат без копирования (используется
+    // TabulatedFunctions.tabulate для только что вычисленного массива, на который больше никто не ссылается)
+    DoubleArrayTabulatedFunction(double leftX, double rightX, double[] values, boolean adopt) {
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
+        }
+        if (values.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        this.pointsCount = values.length;
+        this.xs = new double[adopt ? pointsCount : pointsCount + 10];
+        double step = (rightX - leftX) / (pointsCount - 1);
+        for (int i = 0; i < pointsCount; i++) {
+            xs[i] = leftX + i * step;
+        }
+        if (adopt) {
+            this.ys = values;
+        } else {
+            this.ys = new double[pointsCount + 10];
+            System.arraycopy(values, 0, ys, 0, pointsCount);
+        }
+        updateGridMode();
+        recomputeHash();
+    }
+
+    public DoubleArrayTabulatedFunction(FunctionPoint[] points) {
+        if (points.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        for (int i = 1; i < points.length; i++) {
+            if (points[i].getX() - points[i-1].getX() <= 1e-10) {
+                throw new IllegalArgumentException("Точки не упорядочены по возрастанию x");
+            }
+        }
+
+        this.pointsCount = points.length;
+        this.xs = new double[pointsCount + 10];
+        this.ys = new double[pointsCount + 10];
+        for (int i = 0; i < pointsCount; i++) {
+            xs[i] = points[i].getX();
+            ys[i] = points[i].getY();
+        }
+        updateGridMode();
+        recomputeHash();
+    }
+
+    @Override
+    public Iterator<FunctionPoint> iterator() {
+        return new Iterator<FunctionPoint>() {
+            private int currentIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                return currentIndex < pointsCount;
+            }
+
+            @Override
+            public FunctionPoint next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("Нет следующего элемента");
+                }
+                // Новый объект точки - внутренние массивы изменить через него нельзя
+                FunctionPoint point = new FunctionPoint(xs[currentIndex], ys[currentIndex]);
+                currentIndex++;
+                return point;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Удаление не поддерживается");
+            }
+        };
+    }
+
+    public static class DoubleArrayTabulatedFunctionFactory implements TabulatedFunctionFactory {
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount) {
+            return new DoubleArrayTabulatedFunction(leftX, rightX, pointsCount);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, double[] values) {
+            return new DoubleArrayTabulatedFunction(leftX, rightX, values);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(FunctionPoint[] points) {
+            return new DoubleArrayTabulatedFunction(points);
+        }
+    }
+
+    public double getLeftDomainBorder() {
+        return xs[0];
+    }
+
+    public double getRightDomainBorder() {
+        return xs[pointsCount - 1];
+    }
+
+    public double getFunctionValue(double x) {
+        if (x < getLeftDomainBorder() || x > getRightDomainBorder()) {
+            return Double.NaN;
+        }
+
+        int i = TabulatedFunctions.findSegmentIndex(xs, pointsCount, uniformGrid, gridStep, x);
+        return TabulatedFunctions.valueInSegment(xs, ys, i, x);
+    }
+
+    // Точный интеграл кусочно-линейной функции по отрезку [leftBorder, rightBorder]
+    // Накопленные площади трапеций хранятся в индексе, поэтому запрос выполняется за O(log n)
+    @Override
+    public double integrate(double leftBorder, double rightBorder) {
+        Functions.checkIntegrationBorders(this, leftBorder, rightBorder);
+        if (cumulativeAreas == null) {
+            cumulativeAreas = TabulatedFunctions.cumulativeAreas(xs, ys, pointsCount);
+        }
+        return TabulatedFunctions.integrate(xs, ys, pointsCount, uniformGrid, gridStep, cumulativeAreas,
+            leftBorder, rightBorder);
+    }
+
+    // Пакетное вычисление: для возрастающего массива аргументов - один проход по отрезкам, O(n + m)
+    @Override
+    public void getFunctionValues(double[] args, double[] values) {
+        TabulatedFunctions.functionValues(xs, ys, pointsCount, uniformGrid, gridStep, args, values);
+    }
+
+    private void updateGridMode() {
+        double step = TabulatedFunctions.uniformGridStep(xs, pointsCount);
+        uniformGrid = !Double.isNaN(step);
+        gridStep = uniformGrid ? step : 0.0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException("Индекс " + index + " выходит за границы [0, " + (pointsCount-1) + "]");
+        }
+    }
+
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    public FunctionPoint getPoint(int index) {
+        checkIndex(index);
+        return new FunctionPoint(xs[index], ys[index]);
+    }
+
+    public void setPoint(int index, FunctionPoint point) throws InappropriateFunctionPointException {
+        setPointX(index, point.getX());
+        pointsHash += TabulatedFunctions.pointHash(xs[index], point.getY()) - pointHash(index);
+        ys[index] = point.getY();
+        cumulativeAreas = null;
+    }
+
+    public double getPointX(int index) {
+        checkIndex(index);
+        return xs[index];
+    }
+
+    public void setPointX(int index, double x) throws InappropriateFunctionPointException {
+        checkIndex(index);
+
+        if (index > 0 && x <= xs[index - 1] + 1e-10) {
+            throw new InappropriateFunctionPointException("X координата точки нарушает упорядоченность с предыдущей точкой");
+        }
+        if (index < pointsCount - 1 && x >= xs[index + 1] - 1e-10) {
+            throw new InappropriateFunctionPointException("X координата точки нарушает упорядоченность со следующей точкой");
+        }
+
+        if (xs[index] != x) {
+            pointsHash += TabulatedFunctions.pointHash(x, ys[index]) - pointHash(index);
+            xs[index] = x;
+            uniformGrid = false;
+            cumulativeAreas = null;
+        }
+    }
+
+    public double getPointY(int index) {
+        checkIndex(index);
+        return ys[index];
+    }
+
+    public void forEachPoint(FunctionPointConsumer action) {
+        for (int i = 0; i < pointsCount; i++) {
+            action.accept(xs[i], ys[i]);
+        }
+    }
+
+    // Координаты уже хранятся в отдельных массивах - копирование двумя System.arraycopy
+    public void copyPoints(int fromIndex, double[] xs, double[] ys, int count) {
+        TabulatedFunctions.checkCopyRange(this, fromIndex, xs, ys, count);
+        System.arraycopy(this.xs, fromIndex, xs, 0, count);
+        System.arraycopy(this.ys, fromIndex, ys, 0, count);
+    }
+
+    public void setPointY(int index, double y) {
+        checkIndex(index);
+        pointsHash += TabulatedFunctions.pointHash(xs[index], y) - pointHash(index);
+        ys[index] = y;
+        cumulativeAreas = null;
+    }
+
+    public void deletePoint(int index) {
+        checkIndex(index);
+
+        if (pointsCount < 3) {
+            throw new IllegalStateException("Невозможно удалить точку: количество точек должно быть не менее 3");
+        }
+
+        pointsHash -= pointHash(index);
+        System.arraycopy(xs, index + 1, xs, index, pointsCount - index - 1);
+        System.arraycopy(ys, index + 1, ys, index, pointsCount - index - 1);
+        pointsCount--;
+        cumulativeAreas = null;
+        // Удаление крайней точки сохраняет шаг сетки, удаление внутренней - нарушает его
+        if (index != 0 && index != pointsCount) {
+            uniformGrid = false;
+        }
+    }
+
+    public void addPoint(FunctionPoint point) throws InappropriateFunctionPointException {
+        double x = point.getX();
+
+        // Бинарный поиск позиции вставки: первый индекс с xs[i] >= x
+        int low = 0;
+        int high = pointsCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (xs[mid] < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int insertIndex = low;
+
+        if ((insertIndex < pointsCount && Math.abs(xs[insertIndex] - x) < 1e-10)
+                || (insertIndex > 0 && Math.abs(xs[insertIndex - 1] - x) < 1e-10)) {
+            throw new InappropriateFunctionPointException("Точка с X=" + x + " уже существует");
+        }
+
+        if (pointsCount >= xs.length) {
+            double[] newXs = new double[xs.length * 2];
+            double[] newYs = new double[ys.length * 2];
+            System.arraycopy(xs, 0, newXs, 0, pointsCount);
+            System.arraycopy(ys, 0, newYs, 0, pointsCount);
+            xs = newXs;
+            ys = newYs;
+        }
+
+        System.arraycopy(xs, insertIndex, xs, insertIndex + 1, pointsCount - insertIndex);
+        System.arraycopy(ys, insertIndex, ys, insertIndex + 1, pointsCount - insertIndex);
+        xs[insertIndex] = x;
+        ys[insertIndex] = point.getY();
+        pointsHash += pointHash(insertIndex);
+        pointsCount++;
+        cumulativeAreas = null;
+        uniformGrid = false;
+    }
+
+    // Пакетное добавление: слияние упорядоченного пакета с массивами координат за один проход, O(n + m log m)
+    public void addPoints(FunctionPoint[] points) throws InappropriateFunctionPointException {
+        double[][] batch = TabulatedFunctions.sortedBatch(points);
+        if (batch[0].length == 0) {
+            return;
+        }
+        int count = pointsCount + batch[0].length;
+        double[][] merged = TabulatedFunctions.mergeBatch(xs, ys, pointsCount, batch, count + 10);
+        xs = merged[0];
+        ys = merged[1];
+        pointsCount = count;
+        cumulativeAreas = null;
+        updateGridMode();
+        recomputeHash();
+    }
+
+    // Пакетное удаление диапазона индексов одним сдвигом хвоста
+    public void deletePoints(int fromIndex, int toIndex) {
+        TabulatedFunctions.checkDeleteRange(pointsCount, fromIndex, toIndex);
+        int removed = toIndex - fromIndex;
+        if (removed == 0) {
+            return;
+        }
+        for (int i = fromIndex; i < toIndex; i++) {
+            pointsHash -= pointHash(i);
+        }
+        System.arraycopy(xs, toIndex, xs, fromIndex, pointsCount - toIndex);
+        System.arraycopy(ys, toIndex, ys, fromIndex, pointsCount - toIndex);
+        // Удаление с края сохраняет шаг сетки, удаление внутренних точек - нарушает его
+        if (fromIndex != 0 && toIndex != pointsCount) {
+            uniformGrid = false;
+        }
+        pointsCount -= removed;
+        cumulativeAreas = null;
+    }
+
+    public void printTabulatedFunction() {
+        for (int i = 0; i < pointsCount; i++) {
+            System.out.println("x = " + xs[i] + ", y = " + ys[i]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (int i = 0; i < pointsCount; i++) {
+            sb.append("(").append(xs[i]).append("; ").append(ys[i]).append(")");
+            if (i < pointsCount - 1) {
+                sb.append(", ");
+            }
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TabulatedFunction)) return false;
+        return TabulatedFunctions.contentEquals(this, (TabulatedFunction) o);
+    }
+
+    @Override
+    public long contentHash() {
+        return TabulatedFunctions.contentHash(pointsHash);
+    }
+
+    @Override
+    public int hashCode() {
+        return TabulatedFunctions.hashCode(contentHash());
+    }
+
+    private long pointHash(int index) {
+        return TabulatedFunctions.pointHash(xs[index], ys[index]);
+    }
+
+    // Полный пересчет хэша после построения или слияния всех точек
+    private void recomputeHash() {
+        pointsHash = 0;
+        for (int i = 0; i < pointsCount; i++) {
+            pointsHash += pointHash(i);
+        }
+    }
+
+    @Override
+    public Object clone() {
+        DoubleArrayTabulatedFunction cloned = new DoubleArrayTabulatedFunction();
+        cloned.xs = xs.clone();
+        cloned.ys = ys.clone();
+        cloned.pointsCount = this.pointsCount;
+        cloned.uniformGrid = this.uniformGrid;
+        cloned.gridStep = this.gridStep;
+        cloned.pointsHash = this.pointsHash;
+        return cloned;
+    }
+
+    // Методы Externalizable - формат совпадает с ArrayTabulatedFunction
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt(pointsCount);
+        for (int i = 0; i < pointsCount; i++) {
+            out.writeDouble(xs[i]);
+            out.writeDouble(ys[i]);
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        pointsCount = in.readInt();
+        xs = new double[pointsCount + 10];
+        ys = new double[pointsCount + 10];
+        for (int i = 0; i < pointsCount; i++) {
+            xs[i] = in.readDouble();
+            ys[i] = in.readDouble();
+        }
+        updateGridMode();
+        recomputeHash();
+        cumulativeAreas = null;
+    }
+}
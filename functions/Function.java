@@ -4,4 +4,16 @@ public interface Function {
     double getLeftDomainBorder();
     double getRightDomainBorder();
     double getFunctionValue(double x);
+
+    // Пакетное вычисление: values[i] = f(xs[i]) для всех i из xs
+    // Реализации переопределяют метод, чтобы не платить за вызов getFunctionValue на каждую точку
+    // xs и values могут быть одним и тем же массивом: values[i] записывается после чтения xs[i]
+    default void getFunctionValues(double[] xs, double[] values) {
+        if (values.length < xs.length) {
+            throw new IllegalArgumentException("Массив результатов короче массива аргументов");
+        }
+        for (int i = 0; i < xs.length; i++) {
+            values[i] = getFunctionValue(xs[i]);
+        }
+    }
 }
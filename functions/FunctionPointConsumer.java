@@ -0,0 +1,9 @@
+package functions;
+
+// Получатель координат точки табулированной функции (см. TabulatedFunction.forEachPoint)
+// Координаты передаются примитивами, поэтому обход не создает объектов FunctionPoint
+// и не дает доступа к внутреннему состоянию функции
+@FunctionalInterface
+public interface FunctionPointConsumer {
+    void accept(double x, double y);
+}
@@ -1,6 +1,12 @@
 package functions;
 
+import functions.basic.Accuracy;
 import functions.meta.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public final class Functions {
     // Приватный конструктор чтобы запретить создание экземпляров
@@ -8,6 +14,51 @@ public final class Functions {
         throw new AssertionError("Нельзя создать экземпляр класса Functions");
     }
 
+    // Комбинации функций (классы пакета functions.meta)
+    
+    // Сдвиг графика вдоль осей: f(x - shiftX) + shiftY
+    public static Function shift(Function f, double shiftX, double shiftY) {
+        return new Shift(f, shiftX, shiftY);
+    }
+    
+    // Растяжение графика вдоль осей: scaleY * f(x / scaleX)
+    public static Function scale(Function f, double scaleX, double scaleY) {
+        return new Scale(f, scaleX, scaleY);
+    }
+    
+    public static Function power(Function f, double power) {
+        return new Power(f, power);
+    }
+    
+    public static Function sum(Function f1, Function f2) {
+        return new Sum(f1, f2);
+    }
+    
+    public static Function mult(Function f1, Function f2) {
+        return new Mult(f1, f2);
+    }
+    
+    // Композиция f1(f2(x))
+    public static Function composition(Function f1, Function f2) {
+        return new Composition(f1, f2);
+    }
+    
+    // Упрощенное дерево функций с тем же значением (см. Simplifier): цепочки сдвигов и растяжений
+    // сворачиваются в одно преобразование, константы вычисляются заранее
+    public static Function simplify(Function f) {
+        return Simplifier.simplify(f);
+    }
+    
+    // Упрощенное дерево, скомпилированное в класс с линейным кодом getFunctionValue (см. FunctionCompiler)
+    public static Function compile(Function f) {
+        return FunctionCompiler.compile(f);
+    }
+    
+    // Дерево, в котором Sin, Cos, Tan, Exp и Log заменены быстрыми вариантами заданной точности (см. Approximator)
+    public static Function approximate(Function f, Accuracy accuracy) {
+        return Approximator.approximate(f, accuracy);
+    }
+
     /**
      * Вычисляет интеграл функции методом трапеций
      * @param function интегрируемая функция
@@ -18,28 +69,7 @@ public final class Functions {
      * @throws IllegalArgumentException если границы интегрирования выходят за область определения функции
      */
     public static double integrate(Function function, double leftBorder, double rightBorder, double discretizationStep) {
-        // Проверка корректности границ интегрирования
-        if (leftBorder < function.getLeftDomainBorder()) {
-            throw new IllegalArgumentException(
-                "Левая граница интегрирования " + leftBorder + 
-                " выходит за левую границу области определения функции " + function.getLeftDomainBorder()
-            );
-        }
-        
-        if (rightBorder > function.getRightDomainBorder()) {
-            throw new IllegalArgumentException(
-                "Правая граница интегрирования " + rightBorder + 
-                " выходит за правую границу области определения функции " + function.getRightDomainBorder()
-            );
-        }
-        
-        if (leftBorder >= rightBorder) {
-            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
-        }
-        
-        if (discretizationStep <= 0) {
-            throw new IllegalArgumentException("Шаг дискретизации должен быть положительным");
-        }
+        checkIntegrationArguments(function, leftBorder, rightBorder, discretizationStep);
         
         double integral = 0.0;
         double currentX = leftBorder;
@@ -67,4 +97,305 @@ public final class Functions {
         
         return integral;
     }
+
+    /**
+     * Вычисляет интеграл функции методом трапеций параллельно в общем пуле ForkJoinPool
+     * @see #integrateParallel(Function, double, double, double, ForkJoinPool)
+     */
+    public static double integrateParallel(Function function, double leftBorder, double rightBorder, double discretizationStep) {
+        return integrateParallel(function, leftBorder, rightBorder, discretizationStep, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Вычисляет интеграл функции методом трапеций, разбивая отрезок на блоки, обрабатываемые параллельно.
+     * Функция вычисляется в каждом узле ровно один раз: сумма трапеций записывается как сумма
+     * значений в узлах с весами (h(k-1) + h(k)) / 2. Частичные суммы накапливаются с компенсацией
+     * (алгоритм Ноймайера) и складываются в фиксированном порядке, поэтому результат не зависит
+     * от числа потоков. Узлы вычисляются как leftBorder + k * discretizationStep, поэтому результат
+     * может отличаться от {@link #integrate} в последних знаках.
+     * @param function интегрируемая функция
+     * @param leftBorder левая граница интегрирования
+     * @param rightBorder правая граница интегрирования
+     * @param discretizationStep шаг дискретизации
+     * @param pool пул потоков для вычислений
+     * @return значение интеграла или NaN, если функция не определена хотя бы в одном узле
+     * @throws IllegalArgumentException если границы интегрирования выходят за область определения функции
+     */
+    public static double integrateParallel(Function function, double leftBorder, double rightBorder,
+                                           double discretizationStep, ForkJoinPool pool) {
+        checkIntegrationArguments(function, leftBorder, rightBorder, discretizationStep);
+        
+        // Количество отрезков: последний может быть короче шага
+        long segments = (long) Math.ceil((rightBorder - leftBorder) / discretizationStep);
+        if (segments < 1) {
+            segments = 1;
+        }
+        while (segments > 1 && leftBorder + (segments - 1) * discretizationStep >= rightBorder) {
+            segments--;
+        }
+        
+        // Узлы 0..segments; блоки фиксированного размера, не зависящего от числа потоков
+        long nodes = segments + 1;
+        int blocks = (int) ((nodes + INTEGRATION_BLOCK_SIZE - 1) / INTEGRATION_BLOCK_SIZE);
+        double[] sums = new double[blocks];
+        double[] compensations = new double[blocks];
+        
+        pool.invoke(new IntegrationTask(function, leftBorder, rightBorder, discretizationStep, segments,
+                                        0, blocks, sums, compensations));
+        
+        double sum = 0.0;
+        double compensation = 0.0;
+        for (int i = 0; i < blocks; i++) {
+            if (Double.isNaN(sums[i])) {
+                return Double.NaN;
+            }
+            double t = sum + sums[i];
+            compensation += Math.abs(sum) >= Math.abs(sums[i]) ? (sum - t) + sums[i] : (sums[i] - t) + sum;
+            sum = t;
+            compensation += compensations[i];
+        }
+        // При бесконечных значениях функции поправки равны inf - inf = NaN; как и integrate,
+        // возвращается сама сумма (бесконечность нужного знака или NaN при бесконечностях разных знаков)
+        if (!Double.isFinite(sum)) {
+            return sum;
+        }
+        return sum + compensation;
+    }
+
+    // Количество узлов в одном блоке параллельного интегрирования
+    private static final int INTEGRATION_BLOCK_SIZE = 1 << 14;
+
+    // Задача, вычисляющая взвешенные суммы значений функции для блоков [fromBlock, toBlock)
+    private static final class IntegrationTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Function function;
+        private final double leftBorder;
+        private final double rightBorder;
+        private final double step;
+        private final long segments;
+        private final int fromBlock;
+        private final int toBlock;
+        private final double[] sums;
+        private final double[] compensations;
+
+        private IntegrationTask(Function function, double leftBorder, double rightBorder, double step, long segments,
+                                int fromBlock, int toBlock, double[] sums, double[] compensations) {
+            this.function = function;
+            this.leftBorder = leftBorder;
+            this.rightBorder = rightBorder;
+            this.step = step;
+            this.segments = segments;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+            this.sums = sums;
+            this.compensations = compensations;
+        }
+
+        @Override
+        protected void compute() {
+            if (toBlock - fromBlock > 1) {
+                int middle = (fromBlock + toBlock) >>> 1;
+                invokeAll(
+                    new IntegrationTask(function, leftBorder, rightBorder, step, segments, fromBlock, middle, sums, compensations),
+                    new IntegrationTask(function, leftBorder, rightBorder, step, segments, middle, toBlock, sums, compensations)
+                );
+                return;
+            }
+            
+            long from = (long) fromBlock * INTEGRATION_BLOCK_SIZE;
+            long to = Math.min(from + INTEGRATION_BLOCK_SIZE, segments + 1);
+            double sum = 0.0;
+            double compensation = 0.0;
+            double x = node(from);
+            double previousX = from > 0 ? node(from - 1) : x;
+            for (long k = from; k < to; k++) {
+                double nextX = k < segments ? node(k + 1) : x;
+                double f = function.getFunctionValue(x);
+                if (Double.isNaN(f)) {
+                    sums[fromBlock] = Double.NaN;
+                    return;
+                }
+                // Вес узла - полусумма длин соседних отрезков
+                double term = f * ((x - previousX) + (nextX - x)) / 2.0;
+                double t = sum + term;
+                compensation += Math.abs(sum) >= Math.abs(term) ? (sum - t) + term : (term - t) + sum;
+                sum = t;
+                previousX = x;
+                x = nextX;
+            }
+            sums[fromBlock] = sum;
+            compensations[fromBlock] = compensation;
+        }
+
+        private double node(long k) {
+            return k >= segments ? rightBorder : leftBorder + k * step;
+        }
+    }
+
+    /**
+     * Вычисляет интеграл адаптивным методом Гаусса-Кронрода (7-15 точек).
+     * Отрезок с наибольшей оценкой погрешности делится пополам, пока суммарная погрешность
+     * не станет меньше max(absoluteTolerance, relativeTolerance * |I|) или не будет исчерпан
+     * бюджет вычислений функции. Оценка погрешности отрезка - |K15 - G7|.
+     * @param function интегрируемая функция
+     * @param leftBorder левая граница интегрирования
+     * @param rightBorder правая граница интегрирования
+     * @param absoluteTolerance допустимая абсолютная погрешность
+     * @param relativeTolerance допустимая относительная погрешность
+     * @param maxEvaluations максимальное количество вычислений функции (не менее 15)
+     * @return значение интеграла, оценка погрешности и количество вычислений функции
+     * @throws IllegalArgumentException если границы интегрирования выходят за область определения функции
+     * или параметры точности некорректны
+     */
+    public static IntegrationResult integrateAdaptive(Function function, double leftBorder, double rightBorder,
+                                                      double absoluteTolerance, double relativeTolerance, int maxEvaluations) {
+        checkIntegrationBorders(function, leftBorder, rightBorder);
+        if (Double.isInfinite(leftBorder) || Double.isInfinite(rightBorder)) {
+            throw new IllegalArgumentException("Границы адаптивного интегрирования должны быть конечными");
+        }
+        if (!(absoluteTolerance >= 0) || !(relativeTolerance >= 0)) {
+            throw new IllegalArgumentException("Допустимая погрешность должна быть неотрицательной");
+        }
+        if (maxEvaluations < KRONROD_NODES) {
+            throw new IllegalArgumentException("Бюджет вычислений должен быть не менее " + KRONROD_NODES);
+        }
+
+        // Отрезки, которые еще можно делить, упорядочены по убыванию погрешности
+        PriorityQueue<Segment> segments = new PriorityQueue<>();
+        // Отрезки, которые делить уже нельзя (ширина на пределе точности double)
+        List<Segment> finished = new ArrayList<>();
+
+        Segment whole = Segment.evaluate(function, leftBorder, rightBorder);
+        int evaluations = KRONROD_NODES;
+        if (Double.isNaN(whole.value)) {
+            return new IntegrationResult(Double.NaN, Double.NaN, evaluations, false);
+        }
+        segments.add(whole);
+        double value = whole.value;
+        double error = whole.error;
+
+        while (error > Math.max(absoluteTolerance, relativeTolerance * Math.abs(value))
+                && !segments.isEmpty() && evaluations + 2 * KRONROD_NODES <= maxEvaluations) {
+            Segment worst = segments.poll();
+            double middle = (worst.left + worst.right) / 2.0;
+            if (middle <= worst.left || middle >= worst.right) {
+                finished.add(worst);
+                continue;
+            }
+
+            Segment left = Segment.evaluate(function, worst.left, middle);
+            Segment right = Segment.evaluate(function, middle, worst.right);
+            evaluations += 2 * KRONROD_NODES;
+            if (Double.isNaN(left.value) || Double.isNaN(right.value)) {
+                return new IntegrationResult(Double.NaN, Double.NaN, evaluations, false);
+            }
+            segments.add(left);
+            segments.add(right);
+
+            value += left.value + right.value - worst.value;
+            error += left.error + right.error - worst.error;
+        }
+
+        // Итоговые суммы пересчитываются заново, чтобы не накапливать погрешность вычитаний
+        value = 0.0;
+        error = 0.0;
+        finished.addAll(segments);
+        for (Segment segment : finished) {
+            value += segment.value;
+            error += segment.error;
+        }
+        boolean converged = error <= Math.max(absoluteTolerance, relativeTolerance * Math.abs(value));
+        return new IntegrationResult(value, error, evaluations, converged);
+    }
+
+    // Узлы и веса квадратуры Гаусса-Кронрода 7-15 на [-1, 1]
+    // Узлы с нечетными индексами - узлы квадратуры Гаусса по 7 точкам
+    private static final int KRONROD_NODES = 15;
+    private static final double[] KRONROD_X = {
+        0.991455371120812639206854697526329, 0.949107912342758524526189684047851,
+        0.864864423359769072789712788640926, 0.741531185599394439863864773280788,
+        0.586087235467691130294144845693013, 0.405845151377397166906606412076961,
+        0.207784955007898467600689403773245, 0.000000000000000000000000000000000
+    };
+    private static final double[] KRONROD_WEIGHTS = {
+        0.022935322010529224963732008058970, 0.063092092629978553290700663189204,
+        0.104790010322250183839876322541518, 0.140653259715525918745189590510238,
+        0.169004726639267902826583426598550, 0.190350578064785409913256402421014,
+        0.204432940075298892414161999234649, 0.209482141084727828012999174891714
+    };
+    private static final double[] GAUSS_WEIGHTS = {
+        0.129484966168869693270611432679082, 0.279705391489276667901467771423780,
+        0.381830050505118944950369775488975, 0.417959183673469387755102040816327
+    };
+
+    // Отрезок адаптивного интегрирования с оценкой интеграла и погрешности
+    private static final class Segment implements Comparable<Segment> {
+        private final double left;
+        private final double right;
+        private final double value;
+        private final double error;
+
+        private Segment(double left, double right, double value, double error) {
+            this.left = left;
+            this.right = right;
+            this.value = value;
+            this.error = error;
+        }
+
+        private static Segment evaluate(Function function, double left, double right) {
+            double center = (left + right) / 2.0;
+            double halfLength = (right - left) / 2.0;
+
+            double fCenter = function.getFunctionValue(center);
+            double kronrod = fCenter * KRONROD_WEIGHTS[7];
+            double gauss = fCenter * GAUSS_WEIGHTS[3];
+            for (int i = 0; i < 7; i++) {
+                double dx = halfLength * KRONROD_X[i];
+                double sum = function.getFunctionValue(center - dx) + function.getFunctionValue(center + dx);
+                kronrod += KRONROD_WEIGHTS[i] * sum;
+                if (i % 2 == 1) {
+                    gauss += GAUSS_WEIGHTS[i / 2] * sum;
+                }
+            }
+            kronrod *= halfLength;
+            gauss *= halfLength;
+            return new Segment(left, right, kronrod, Math.abs(kronrod - gauss));
+        }
+
+        @Override
+        public int compareTo(Segment other) {
+            return Double.compare(other.error, error);
+        }
+    }
+
+    // Проверка аргументов, общая для всех методов интегрирования
+    private static void checkIntegrationArguments(Function function, double leftBorder, double rightBorder, double discretizationStep) {
+        checkIntegrationBorders(function, leftBorder, rightBorder);
+        
+        if (discretizationStep <= 0) {
+            throw new IllegalArgumentException("Шаг дискретизации должен быть положительным");
+        }
+    }
+
+    // Проверка корректности границ интегрирования (используется также табулированными функциями)
+    static void checkIntegrationBorders(Function function, double leftBorder, double rightBorder) {
+        if (leftBorder < function.getLeftDomainBorder()) {
+            throw new IllegalArgumentException(
+                "Левая граница интегрирования " + leftBorder + 
+                " выходит за левую границу области определения функции " + function.getLeftDomainBorder()
+            );
+        }
+        
+        if (rightBorder > function.getRightDomainBorder()) {
+            throw new IllegalArgumentException(
+                "Правая граница интегрирования " + rightBorder + 
+                " выходит за правую границу области определения функции " + function.getRightDomainBorder()
+            );
+        }
+        
+        if (leftBorder >= rightBorder) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
+        }
+    }
 }
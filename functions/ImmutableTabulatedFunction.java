@@ -0,0 +1,425 @@
+package functions;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Iterator;
+import java.io.Serializable;
+
+// Неизменяемая табулированная функция: координаты задаются при создании и больше не меняются,
+// поэтому объект можно без синхронизации читать из любого количества потоков
+// Методы изменения интерфейса TabulatedFunction бросают UnsupportedOperationException; вместо них
+// методы with... возвращают новую версию функции, а текущая остается прежней (копирование при записи)
+public final class ImmutableTabulatedFunction implements TabulatedFunction, Serializable {
+    private static final long serialVersionUID = 1L;
+    private final double[] xs;
+    private final double[] ys;
+    // Режим равномерной сетки: если шаг по X постоянный, индекс отрезка вычисляется напрямую
+    private final boolean uniformGrid;
+    private final double gridStep;
+    // Накопленные площади: cumulativeAreas[i] - интеграл от первой точки до i-й; вычисляются при первом интегрировании
+    private transient volatile double[] cumulativeAreas;
+    // Хэш содержимого вычисляется при первом обращении (0 - еще не вычислен), как String.hashCode
+    private transient volatile long contentHash;
+
+    public ImmutableTabulatedFunction(double leftX, double rightX, int pointsCount) {
+        this(leftX, rightX, new double[Math.max(pointsCount, 0)]);
+    }
+
+    public ImmutableTabulatedFunction(double leftX, double rightX, double[] values) {
+        this(gridXs(leftX, rightX, values.length), values.clone());
+    }
+
+    public ImmutableTabulatedFunction(FunctionPoint[] points) {
+        this(pointXs(points), pointYs(points));
+    }
+
+    // Функция по границам, которой массив values передается во владение без копирования
+    static ImmutableTabulatedFunction adopt(double leftX, double rightX, double[] values) {
+        return new ImmutableTabulatedFunction(gridXs(leftX, rightX, values.length), values);
+    }
+
+    // Массивы передаются во владение объекту без копирования; абсциссы должны быть упорядочены
+    ImmutableTabulatedFunction(double[] xs, double[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+
+        double step = TabulatedFunctions.uniformGridStep(xs, xs.length);
+        uniformGrid = !Double.isNaN(step);
+        gridStep = uniformGrid ? step : 0.0;
+    }
+
+    // То же с заранее известным хэшем содержимого (снимок функции, которая поддерживает хэш сама)
+    ImmutableTabulatedFunction(double[] xs, double[] ys, long contentHash) {
+        this(xs, ys);
+        this.contentHash = contentHash;
+    }
+
+    private static double[] gridXs(double leftX, double rightX, int pointsCount) {
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
+        }
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+        double[] xs = new double[pointsCount];
+        double step = (rightX - leftX) / (pointsCount - 1);
+        for (int i = 0; i < pointsCount; i++) {
+            xs[i] = leftX + i * step;
+        }
+        return xs;
+    }
+
+    private static double[] pointXs(FunctionPoint[] points) {
+        if (points.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+        double[] xs = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            xs[i] = points[i].getX();
+            if (i > 0 && xs[i] - xs[i - 1] <= 1e-10) {
+                throw new IllegalArgumentException("Точки не упорядочены по возрастанию x");
+            }
+        }
+        return xs;
+    }
+
+    private static double[] pointYs(FunctionPoint[] points) {
+        double[] ys = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            ys[i] = points[i].getY();
+        }
+        return ys;
+    }
+
+    // Неизменяемая копия произвольной табулированной функции (одно пакетное копирование координат)
+    public static ImmutableTabulatedFunction copyOf(TabulatedFunction function) {
+        if (function instanceof ImmutableTabulatedFunction) {
+            return (ImmutableTabulatedFunction) function;
+        }
+        int count = function.getPointsCount();
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        function.copyPoints(0, xs, ys, count);
+        return new ImmutableTabulatedFunction(xs, ys);
+    }
+
+    @Override
+    public ImmutableTabulatedFunction snapshot() {
+        return this;
+    }
+
+    @Override
+    public Iterator<FunctionPoint> iterator() {
+        return new Iterator<FunctionPoint>() {
+            private int currentIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                return currentIndex < xs.length;
+            }
+
+            @Override
+            public FunctionPoint next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("Нет следующего элемента");
+                }
+                FunctionPoint point = new FunctionPoint(xs[currentIndex], ys[currentIndex]);
+                currentIndex++;
+                return point;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Удаление не поддерживается");
+            }
+        };
+    }
+
+    public static class ImmutableTabulatedFunctionFactory implements TabulatedFunctionFactory {
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount) {
+            return new ImmutableTabulatedFunction(leftX, rightX, pointsCount);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, double[] values) {
+            return new ImmutableTabulatedFunction(leftX, rightX, values);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(FunctionPoint[] points) {
+            return new ImmutableTabulatedFunction(points);
+        }
+    }
+
+    public double getLeftDomainBorder() {
+        return xs[0];
+    }
+
+    public double getRightDomainBorder() {
+        return xs[xs.length - 1];
+    }
+
+    public double getFunctionValue(double x) {
+        if (x < getLeftDomainBorder() || x > getRightDomainBorder()) {
+            return Double.NaN;
+        }
+
+        int i = TabulatedFunctions.findSegmentIndex(xs, xs.length, uniformGrid, gridStep, x);
+        return TabulatedFunctions.valueInSegment(xs, ys, i, x);
+    }
+
+    // Пакетное вычисление: для возрастающего массива аргументов - один проход по отрезкам, O(n + m)
+    @Override
+    public void getFunctionValues(double[] args, double[] values) {
+        TabulatedFunctions.functionValues(xs, ys, xs.length, uniformGrid, gridStep, args, values);
+    }
+
+    // Точный интеграл за O(log n) по накопленным площадям трапеций
+    @Override
+    public double integrate(double leftBorder, double rightBorder) {
+        Functions.checkIntegrationBorders(this, leftBorder, rightBorder);
+        double[] areas = cumulativeAreas;
+        if (areas == null) {
+            // Одновременное вычисление в нескольких потоках дает одинаковые массивы - достаточно volatile
+            areas = TabulatedFunctions.cumulativeAreas(xs, ys, xs.length);
+            cumulativeAreas = areas;
+        }
+        return TabulatedFunctions.integrate(xs, ys, xs.length, uniformGrid, gridStep, areas, leftBorder, rightBorder);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= xs.length) {
+            throw new FunctionPointIndexOutOfBoundsException("Индекс " + index + " выходит за границы [0, " + (xs.length-1) + "]");
+        }
+    }
+
+    public int getPointsCount() {
+        return xs.length;
+    }
+
+    public FunctionPoint getPoint(int index) {
+        checkIndex(index);
+        return new FunctionPoint(xs[index], ys[index]);
+    }
+
+    public double getPointX(int index) {
+        checkIndex(index);
+        return xs[index];
+    }
+
+    public double getPointY(int index) {
+        checkIndex(index);
+        return ys[index];
+    }
+
+    public void forEachPoint(FunctionPointConsumer action) {
+        for (int i = 0; i < xs.length; i++) {
+            action.accept(xs[i], ys[i]);
+        }
+    }
+
+    public void copyPoints(int fromIndex, double[] xs, double[] ys, int count) {
+        TabulatedFunctions.checkCopyRange(this, fromIndex, xs, ys, count);
+        System.arraycopy(this.xs, fromIndex, xs, 0, count);
+        System.arraycopy(this.ys, fromIndex, ys, 0, count);
+    }
+
+    // Функция неизменяема: методы изменения бросают UnsupportedOperationException, новые версии строят методы with...
+    public void setPoint(int index, FunctionPoint point) {
+        throw new UnsupportedOperationException("Неизменяемую функцию нельзя изменить, используйте withPoint");
+    }
+
+    public void setPointX(int index, double x) {
+        throw new UnsupportedOperationException("Неизменяемую функцию нельзя изменить, используйте withPointX");
+    }
+
+    public void setPointY(int index, double y) {
+        throw new UnsupportedOperationException("Неизменяемую функцию нельзя изменить, используйте withPointY");
+    }
+
+    public void deletePoint(int index) {
+        throw new UnsupportedOperationException("Неизменяемую функцию нельзя изменить, используйте withoutPoint");
+    }
+
+    public void addPoint(FunctionPoint point) {
+        throw new UnsupportedOperationException("Неизменяемую функцию нельзя изменить, используйте withAddedPoint");
+    }
+
+    public void addPoints(FunctionPoint[] points) {
+        throw new UnsupportedOperationException("Неизменяемую функцию нельзя изменить, используйте withAddedPoints");
+    }
+
+    public void deletePoints(int fromIndex, int toIndex) {
+        throw new UnsupportedOperationException("Неизменяемую функцию нельзя изменить, используйте withoutPoints");
+    }
+
+    public int deletePointsBetween(double leftX, double rightX) {
+        throw new UnsupportedOperationException("Неизменяемую функцию нельзя изменить, используйте withoutPointsBetween");
+    }
+
+    // Новая версия с замененной точкой; проверки те же, что у setPoint изменяемых реализаций
+    public ImmutableTabulatedFunction withPoint(int index, FunctionPoint point) throws InappropriateFunctionPointException {
+        checkOrder(index, point.getX());
+        double[] newXs = xs.clone();
+        double[] newYs = ys.clone();
+        newXs[index] = point.getX();
+        newYs[index] = point.getY();
+        return new ImmutableTabulatedFunction(newXs, newYs);
+    }
+
+    public ImmutableTabulatedFunction withPointX(int index, double x) throws InappropriateFunctionPointException {
+        checkOrder(index, x);
+        double[] newXs = xs.clone();
+        newXs[index] = x;
+        // Массив ординат не меняется и разделяется между версиями
+        return new ImmutableTabulatedFunction(newXs, ys);
+    }
+
+    public ImmutableTabulatedFunction withPointY(int index, double y) {
+        checkIndex(index);
+        double[] newYs = ys.clone();
+        newYs[index] = y;
+        return new ImmutableTabulatedFunction(xs, newYs);
+    }
+
+    public ImmutableTabulatedFunction withoutPoint(int index) {
+        checkIndex(index);
+        if (xs.length < 3) {
+            throw new IllegalStateException("Невозможно удалить точку: количество точек должно быть не менее 3");
+        }
+        double[] newXs = new double[xs.length - 1];
+        double[] newYs = new double[ys.length - 1];
+        System.arraycopy(xs, 0, newXs, 0, index);
+        System.arraycopy(ys, 0, newYs, 0, index);
+        System.arraycopy(xs, index + 1, newXs, index, xs.length - index - 1);
+        System.arraycopy(ys, index + 1, newYs, index, ys.length - index - 1);
+        return new ImmutableTabulatedFunction(newXs, newYs);
+    }
+
+    public ImmutableTabulatedFunction withAddedPoint(FunctionPoint point) throws InappropriateFunctionPointException {
+        double x = point.getX();
+        int insertIndex = Arrays.binarySearch(xs, x);
+        if (insertIndex < 0) {
+            insertIndex = -insertIndex - 1;
+        }
+        if ((insertIndex < xs.length && Math.abs(xs[insertIndex] - x) < 1e-10)
+                || (insertIndex > 0 && Math.abs(xs[insertIndex - 1] - x) < 1e-10)) {
+            throw new InappropriateFunctionPointException("Точка с X=" + x + " уже существует");
+        }
+
+        double[] newXs = new double[xs.length + 1];
+        double[] newYs = new double[ys.length + 1];
+        System.arraycopy(xs, 0, newXs, 0, insertIndex);
+        System.arraycopy(ys, 0, newYs, 0, insertIndex);
+        newXs[insertIndex] = x;
+        newYs[insertIndex] = point.getY();
+        System.arraycopy(xs, insertIndex, newXs, insertIndex + 1, xs.length - insertIndex);
+        System.arraycopy(ys, insertIndex, newYs, insertIndex + 1, ys.length - insertIndex);
+        return new ImmutableTabulatedFunction(newXs, newYs);
+    }
+
+    // Новая версия с добавленным пакетом точек: слияние за один проход, O(n + m log m)
+    public ImmutableTabulatedFunction withAddedPoints(FunctionPoint[] points) throws InappropriateFunctionPointException {
+        double[][] batch = TabulatedFunctions.sortedBatch(points);
+        if (batch[0].length == 0) {
+            return this;
+        }
+        double[][] merged = TabulatedFunctions.mergeBatch(xs, ys, xs.length, batch, xs.length + batch[0].length);
+        return new ImmutableTabulatedFunction(merged[0], merged[1]);
+    }
+
+    // Новая версия без точек с индексами fromIndex .. toIndex - 1
+    public ImmutableTabulatedFunction withoutPoints(int fromIndex, int toIndex) {
+        TabulatedFunctions.checkDeleteRange(xs.length, fromIndex, toIndex);
+        if (fromIndex == toIndex) {
+            return this;
+        }
+        int count = xs.length - (toIndex - fromIndex);
+        double[] newXs = Arrays.copyOf(xs, count);
+        double[] newYs = Arrays.copyOf(ys, count);
+        System.arraycopy(xs, toIndex, newXs, fromIndex, xs.length - toIndex);
+        System.arraycopy(ys, toIndex, newYs, fromIndex, ys.length - toIndex);
+        return new ImmutableTabulatedFunction(newXs, newYs);
+    }
+
+    // Новая версия без точек с leftX <= x <= rightX
+    public ImmutableTabulatedFunction withoutPointsBetween(double leftX, double rightX) {
+        if (!(leftX <= rightX)) {
+            throw new IllegalArgumentException("Левая граница диапазона больше правой");
+        }
+        // Бинарный поиск первой точки с x >= leftX, затем первой точки с x > rightX
+        int low = 0;
+        int high = xs.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (xs[mid] < leftX) low = mid + 1; else high = mid;
+        }
+        int fromIndex = low;
+        high = xs.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (xs[mid] <= rightX) low = mid + 1; else high = mid;
+        }
+        int toIndex = low;
+        return withoutPoints(fromIndex, toIndex);
+    }
+
+    private void checkOrder(int index, double x) throws InappropriateFunctionPointException {
+        checkIndex(index);
+        if (index > 0 && x <= xs[index - 1] + 1e-10) {
+            throw new InappropriateFunctionPointException("X координата точки нарушает упорядоченность с предыдущей точкой");
+        }
+        if (index < xs.length - 1 && x >= xs[index + 1] - 1e-10) {
+            throw new InappropriateFunctionPointException("X координата точки нарушает упорядоченность со следующей точкой");
+        }
+    }
+
+    public void printTabulatedFunction() {
+        for (int i = 0; i < xs.length; i++) {
+            System.out.println("x = " + xs[i] + ", y = " + ys[i]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (int i = 0; i < xs.length; i++) {
+            sb.append("(").append(xs[i]).append("; ").append(ys[i]).append(")");
+            if (i < xs.length - 1) {
+                sb.append(", ");
+            }
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TabulatedFunction)) return false;
+        return TabulatedFunctions.contentEquals(this, (TabulatedFunction) o);
+    }
+
+    @Override
+    public long contentHash() {
+        long hash = contentHash;
+        if (hash == 0) {
+            hash = TabulatedFunction.super.contentHash();
+            contentHash = hash;
+        }
+        return hash;
+    }
+
+    @Override
+    public int hashCode() {
+        return TabulatedFunctions.hashCode(contentHash());
+    }
+
+    // Неизменяемый объект не нужно копировать
+    @Override
+    public Object clone() {
+        return this;
+    }
+}
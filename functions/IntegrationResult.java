@@ -0,0 +1,41 @@
+package functions;
+
+// Результат адаптивного интегрирования: значение, оценка погрешности и затраченные вычисления функции
+public final class IntegrationResult {
+    private final double value;
+    private final double absoluteError;
+    private final int evaluationsCount;
+    private final boolean converged;
+
+    public IntegrationResult(double value, double absoluteError, int evaluationsCount, boolean converged) {
+        this.value = value;
+        this.absoluteError = absoluteError;
+        this.evaluationsCount = evaluationsCount;
+        this.converged = converged;
+    }
+
+    // Значение интеграла
+    public double getValue() {
+        return value;
+    }
+
+    // Оценка абсолютной погрешности
+    public double getAbsoluteError() {
+        return absoluteError;
+    }
+
+    // Количество вычислений интегрируемой функции
+    public int getEvaluationsCount() {
+        return evaluationsCount;
+    }
+
+    // true, если требуемая точность достигнута в пределах бюджета вычислений
+    public boolean isConverged() {
+        return converged;
+    }
+
+    @Override
+    public String toString() {
+        return value + " ± " + absoluteError + " (вычислений: " + evaluationsCount + (converged ? ")" : ", точность не достигнута)");
+    }
+}
@@ -1,6 +1,8 @@
 package functions;
 import java.util.NoSuchElementException;
 import java.util.Iterator;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 public class LinkedListTabulatedFunction implements TabulatedFunction, Serializable {
@@ -15,8 +17,27 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         }
     }
 
+    // Неизменяемая пара (узел, индекс) для курсора: публикуется одной записью ссылки и читается
+    // одним чтением, поэтому потоки, которые только читают общий список, не могут получить узел
+    // от одного обращения и индекс от другого
+    private static final class Cursor {
+        private final FunctionNode node;
+        private final int index;
+
+        private Cursor(FunctionNode node, int index) {
+            this.node = node;
+            this.index = index;
+        }
+    }
+
     private final FunctionNode head;
     private int size;
+    // Курсор: последний узел, к которому обращались по индексу, и его индекс
+    // Позволяет при последовательном доступе идти от предыдущего узла, а не от головы списка
+    private transient Cursor cursor;
+    // Сумма хэшей точек (см. TabulatedFunctions.pointHash), обновляется при каждом изменении
+    // Не сериализуется: после чтения пересчитывается по точкам
+    private transient long pointsHash;
 
     // Конструктор по умолчанию
     public LinkedListTabulatedFunction() {
@@ -37,9 +58,9 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         double step = (rightX - leftX) / (pointsCount - 1);
         for (int i = 0; i < pointsCount; i++) {
             FunctionNode node = addNodeToTail();
-            node.point = new FunctionPoint(leftX, 0);
-            leftX += step;
+            node.point = new FunctionPoint(leftX + i * step, 0);
         }
+        recomputeHash();
     }
 
     public LinkedListTabulatedFunction(double leftX, double rightX, double[] values) {
@@ -53,9 +74,9 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         double step = (rightX - leftX) / (values.length - 1);
         for (int i = 0; i < values.length; i++) {
             FunctionNode node = addNodeToTail();
-            node.point = new FunctionPoint(leftX, values[i]);
-            leftX += step;
+            node.point = new FunctionPoint(leftX + i * step, values[i]);
         }
+        recomputeHash();
     }
     
     public LinkedListTabulatedFunction(FunctionPoint[] points) {
@@ -73,6 +94,7 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         for (FunctionPoint point : points) {
             addNodeToTail().point = new FunctionPoint(point); // ← size увеличивается в addNodeToTail()
         }
+        recomputeHash();
     }
     @Override//№1
     public Iterator<FunctionPoint> iterator() {
@@ -157,12 +179,13 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
             throw new InappropriateFunctionPointException("X координата точки нарушает упорядоченность");
         }
 
+        pointsHash += pointHash(point) - pointHash(node.point);
         node.point = new FunctionPoint(point);
     }
 
     // Возвращает X точки с указанным индексом
     public double getPointX(int index) {
-        return getPoint(index).getX();
+        return getNodeByIndex(index).point.getX();
     }
 
     // Метод, изменяющий значение абсциссы точки с указанным номером
@@ -174,12 +197,39 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         if ((index > 0 && x <= node.prev.point.getX() + 1e-10) || (index < size - 1 && x >= node.next.point.getX() - 1e-10)) {
             throw new InappropriateFunctionPointException("X координата точки нарушает упорядоченность");
         }
+        pointsHash += TabulatedFunctions.pointHash(x, node.point.getY()) - pointHash(node.point);
         node.point.setX(x);
     }
 
     // Возвращает Y точки с указанным индексом
     public double getPointY(int index) {
-        return getPoint(index).getY();
+        return getNodeByIndex(index).point.getY();
+    }
+
+    // Проход по ссылкам next от головы списка, без поиска узлов по индексу
+    public void forEachPoint(FunctionPointConsumer action) {
+        for (FunctionNode node = head.next; node != head; node = node.next) {
+            action.accept(node.point.getX(), node.point.getY());
+        }
+    }
+
+    // Пакетное копирование: один поиск первого узла, дальше проход по ссылкам next
+    // Курсор остается на последнем скопированном узле, поэтому копирование следующего блока начинается с соседа
+    public void copyPoints(int fromIndex, double[] xs, double[] ys, int count) {
+        TabulatedFunctions.checkCopyRange(this, fromIndex, xs, ys, count);
+        if (count == 0) {
+            return;
+        }
+        FunctionNode node = getNodeByIndex(fromIndex);
+        for (int i = 0; ; i++) {
+            xs[i] = node.point.getX();
+            ys[i] = node.point.getY();
+            if (i == count - 1) {
+                break;
+            }
+            node = node.next;
+        }
+        cursor = new Cursor(node, fromIndex + count - 1);
     }
 
     // Метод, изменяющий значение ординаты точки с указанным номером
@@ -187,7 +237,9 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         if (index < 0 || index >= size) {
             throw new FunctionPointIndexOutOfBoundsException();
         }
-        getNodeByIndex(index).point.setY(y);
+        FunctionPoint point = getNodeByIndex(index).point;
+        pointsHash += TabulatedFunctions.pointHash(point.getX(), y) - pointHash(point);
+        point.setY(y);
     }
 
     // Добавление точки
@@ -197,6 +249,7 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         if (size == 0) {
             addNodeToTail().point = new FunctionPoint(point);
             size++;
+            pointsHash += pointHash(point);
             return;
         }
 
@@ -212,11 +265,13 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         if (x < getLeftDomainBorder()) {
             FunctionNode node = addNodeByIndex(0);
             node.point = new FunctionPoint(point);
+            pointsHash += pointHash(point);
             return;
         }
 
         if (x > getRightDomainBorder()) {
             addNodeToTail().point = new FunctionPoint(point);
+            pointsHash += pointHash(point);
             return;
         }
 
@@ -233,6 +288,64 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         }
         FunctionNode node = addNodeByIndex(index);
         node.point = new FunctionPoint(point);
+        pointsHash += pointHash(point);
+    }
+
+    // Пакетное добавление: упорядоченный пакет вливается в список за один проход по узлам, O(n + m log m)
+    public void addPoints(FunctionPoint[] points) throws InappropriateFunctionPointException {
+        double[][] batch = TabulatedFunctions.sortedBatch(points);
+        double[] batchXs = batch[0];
+        double[] batchYs = batch[1];
+        int m = batchXs.length;
+
+        // Первый проход только проверяет совпадения X, чтобы при ошибке список не изменился
+        FunctionNode current = head.next;
+        for (int j = 0; j < m; j++) {
+            while (current != head && current.point.getX() < batchXs[j]) {
+                if (batchXs[j] - current.point.getX() < 1e-10) {
+                    throw new InappropriateFunctionPointException("Точка с X=" + batchXs[j] + " уже существует");
+                }
+                current = current.next;
+            }
+            if (current != head && current.point.getX() - batchXs[j] < 1e-10) {
+                throw new InappropriateFunctionPointException("Точка с X=" + batchXs[j] + " уже существует");
+            }
+        }
+
+        // Второй проход вставляет каждый новый узел перед первым узлом с большим X
+        current = head.next;
+        for (int j = 0; j < m; j++) {
+            while (current != head && current.point.getX() < batchXs[j]) {
+                current = current.next;
+            }
+            FunctionNode node = new FunctionNode(new FunctionPoint(batchXs[j], batchYs[j]));
+            node.next = current;
+            node.prev = current.prev;
+            current.prev.next = node;
+            current.prev = node;
+            pointsHash += TabulatedFunctions.pointHash(batchXs[j], batchYs[j]);
+        }
+        size += m;
+        // Индексы узлов сдвинулись
+        cursor = null;
+    }
+
+    // Пакетное удаление: один поиск первого узла, затем цепочка узлов вырезается целиком
+    public void deletePoints(int fromIndex, int toIndex) {
+        TabulatedFunctions.checkDeleteRange(size, fromIndex, toIndex);
+        if (fromIndex == toIndex) {
+            return;
+        }
+        FunctionNode before = getNodeByIndex(fromIndex).prev;
+        FunctionNode after = before.next;
+        for (int i = fromIndex; i < toIndex; i++) {
+            pointsHash -= pointHash(after.point);
+            after = after.next;
+        }
+        before.next = after;
+        after.prev = before;
+        size -= toIndex - fromIndex;
+        cursor = null;
     }
 
     // Удаление точки
@@ -241,7 +354,7 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         if (index < 0 || index >= size) {
             throw new FunctionPointIndexOutOfBoundsException();
         }
-        deleteNodeByIndex(index);
+        pointsHash -= pointHash(deleteNodeByIndex(index).point);
     }
 
     // Метод, возвращающий значение функции в точке х
@@ -264,24 +377,75 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         return Double.NaN;
     }
 
+    // Пакетное вычисление: для возрастающего массива аргументов - один проход по списку, O(n + m)
+    @Override
+    public void getFunctionValues(double[] xs, double[] values) {
+        if (values.length < xs.length) {
+            throw new IllegalArgumentException("Массив результатов короче массива аргументов");
+        }
+        if (!TabulatedFunctions.isSorted(xs)) {
+            for (int k = 0; k < xs.length; k++) {
+                values[k] = getFunctionValue(xs[k]);
+            }
+            return;
+        }
+
+        double left = getLeftDomainBorder();
+        double right = getRightDomainBorder();
+        FunctionNode current = head.next;
+        for (int k = 0; k < xs.length; k++) {
+            double x = xs[k];
+            if (x < left || x > right) {
+                values[k] = Double.NaN;
+                continue;
+            }
+            // Узел current только сдвигается вправо, как и в getFunctionValue ищется первый отрезок с x <= x2
+            while (current.next.next != head && x > current.next.point.getX()) {
+                current = current.next;
+            }
+            double x1 = current.point.getX();
+            double y1 = current.point.getY();
+            double x2 = current.next.point.getX();
+            double y2 = current.next.point.getY();
+            values[k] = y1 + (x - x1) * (y2 - y1) / (x2 - x1);
+        }
+    }
+
     // Возвращает ссылку на объект элемента списка по его индексу
+    // Обход начинается с ближайшего из трех узлов: первого, последнего или курсора
     private FunctionNode getNodeByIndex(int index) {
         if (index < 0 || index >= size) {
             throw new FunctionPointIndexOutOfBoundsException();
         }
         FunctionNode current;
+        int currentIndex;
 
-        if (index < size / 2) {
+        if (index < size - 1 - index) {
             current = head.next;
-            for (int i = 0; i < index; i++) {
-                current = current.next;
-            }
+            currentIndex = 0;
         } else {
             current = head.prev;
-            for (int i = size - 1; i > index; i--) {
-                current = current.prev;
+            currentIndex = size - 1;
+        }
+        Cursor last = cursor;
+        if (last != null && Math.abs(index - last.index) < Math.abs(index - currentIndex)) {
+            if (last.index == index) {
+                return last.node;
             }
+            current = last.node;
+            currentIndex = last.index;
+        }
+
+        while (currentIndex < index) {
+            current = current.next;
+            currentIndex++;
+        }
+        while (currentIndex > index) {
+            current = current.prev;
+            currentIndex--;
         }
+
+        cursor = new Cursor(current, index);
         return current;
     }
     private FunctionNode addNodeToTail() {
@@ -306,6 +470,8 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         nextNode.prev = newNode;
 
         size++;
+        // Индексы узлов после вставленного сдвинулись - курсор переставляем на новый узел
+        cursor = new Cursor(newNode, index);
         return newNode;
     }
     private FunctionNode deleteNodeByIndex(int index) {
@@ -313,6 +479,8 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         node.prev.next = node.next;
         node.next.prev = node.prev;
         size--;
+        // Курсор мог указывать на удаленный узел или на узел со сдвинувшимся индексом
+        cursor = null;
         return node;
     }
     public void printTabulatedFunction() {
@@ -340,43 +508,34 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof TabulatedFunction)) return false;
-        
-        TabulatedFunction that = (TabulatedFunction) o;
-        
-        if (this.getPointsCount() != that.getPointsCount()) return false;
-        
-        if (o instanceof LinkedListTabulatedFunction) {
-            LinkedListTabulatedFunction listThat = (LinkedListTabulatedFunction) o;
-            FunctionNode currentThis = this.head.next;
-            FunctionNode currentThat = listThat.head.next;
-            
-            while (currentThis != this.head && currentThat != listThat.head) {
-                if (!currentThis.point.equals(currentThat.point)) {
-                    return false;
-                }
-                currentThis = currentThis.next;
-                currentThat = currentThat.next;
-            }
-        } else {
-            for (int i = 0; i < getPointsCount(); i++) {
-                if (!this.getPoint(i).equals(that.getPoint(i))) {
-                    return false;
-                }
-            }
-        }
-        
-        return true;
+        return TabulatedFunctions.contentEquals(this, (TabulatedFunction) o);
+    }
+
+    @Override
+    public long contentHash() {
+        return TabulatedFunctions.contentHash(pointsHash);
     }
 
     @Override
     public int hashCode() {
-        int hash = getPointsCount();
-        FunctionNode current = head.next;
-        while (current != head) {
-            hash ^= current.point.hashCode();
-            current = current.next;
+        return TabulatedFunctions.hashCode(contentHash());
+    }
+
+    private static long pointHash(FunctionPoint point) {
+        return TabulatedFunctions.pointHash(point.getX(), point.getY());
+    }
+
+    // Полный пересчет хэша после построения или чтения всех точек
+    private void recomputeHash() {
+        pointsHash = 0;
+        for (FunctionNode node = head.next; node != head; node = node.next) {
+            pointsHash += pointHash(node.point);
         }
-        return hash;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        recomputeHash();
     }
     
     @Override
@@ -396,6 +555,7 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         clonedCurrent.next = cloned.head;
         cloned.head.prev = clonedCurrent;
         cloned.size = this.size;
+        cloned.pointsHash = this.pointsHash;
         
         return cloned;
     }
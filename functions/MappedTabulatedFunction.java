@@ -0,0 +1,382 @@
+package functions;
+import java.util.NoSuchElementException;
+import java.util.Iterator;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+// Табулированная функция только для чтения, вычисляемая напрямую из отображенного в память файла
+// Открытие файла выполняется за O(1): данные не разбираются и не копируются в кучу,
+// страницы файла подгружаются ОС по мере обращения и разделяются между процессами через кэш страниц
+//
+// Формат файла (все числа little-endian):
+//   int    сигнатура 'TABF'
+//   int    версия формата (1)
+//   int    флаги (бит 0 - равномерная сетка)
+//   int    количество точек n
+//   long   CRC32C области данных
+//   double левая граница
+//   double правая граница
+//   данные: для равномерной сетки - n значений Y, иначе n значений X, затем n значений Y
+// Абсциссы равномерной сетки вычисляются как leftX + i * (rightX - leftX) / (n - 1)
+public class MappedTabulatedFunction implements TabulatedFunction {
+    private static final int MAGIC = 0x54414246;
+    private static final int VERSION = 1;
+    private static final int FLAG_UNIFORM = 1;
+    private static final int HEADER_SIZE = 40;
+    // Файл отображается блоками по 1 ГБ, поэтому размер таблицы не ограничен 2 ГБ одного буфера
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final ByteBuffer[] chunks;
+    private final int pointsCount;
+    private final boolean uniformGrid;
+    private final double leftX;
+    private final double rightX;
+    private final double step;
+    private final long checksum;
+    private final long xsOffset;
+    private final long ysOffset;
+    // Хэш содержимого требует чтения всего файла, поэтому вычисляется при первом обращении (0 - еще не вычислен)
+    private volatile long contentHash;
+
+    private MappedTabulatedFunction(ByteBuffer[] chunks, int pointsCount, boolean uniformGrid,
+                                    double leftX, double rightX, long checksum) {
+        this.chunks = chunks;
+        this.pointsCount = pointsCount;
+        this.uniformGrid = uniformGrid;
+        this.leftX = leftX;
+        this.rightX = rightX;
+        this.step = (rightX - leftX) / (pointsCount - 1);
+        this.checksum = checksum;
+        this.xsOffset = HEADER_SIZE;
+        this.ysOffset = uniformGrid ? HEADER_SIZE : HEADER_SIZE + 8L * pointsCount;
+    }
+
+    // Открывает файл без чтения данных; контрольная сумма не проверяется (см. verifyChecksum)
+    public static MappedTabulatedFunction open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Файл слишком мал для заголовка табулированной функции");
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Неожиданный конец файла в заголовке");
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Файл не является табулированной функцией: неверная сигнатура");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия формата: " + version);
+            }
+            boolean uniform = (header.getInt() & FLAG_UNIFORM) != 0;
+            int count = header.getInt();
+            long checksum = header.getLong();
+            double left = header.getDouble();
+            double right = header.getDouble();
+
+            if (count < 2) {
+                throw new IOException("Количество точек должно быть не менее 2");
+            }
+            long expectedSize = HEADER_SIZE + 8L * count * (uniform ? 1 : 2);
+            if (size != expectedSize) {
+                throw new IOException("Размер файла " + size + " не соответствует заголовку (" + expectedSize + ")");
+            }
+
+            int chunksCount = (int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT);
+            ByteBuffer[] chunks = new ByteBuffer[chunksCount];
+            for (int i = 0; i < chunksCount; i++) {
+                long position = (long) i << CHUNK_SHIFT;
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(1L << CHUNK_SHIFT, size - position));
+                chunks[i] = chunk.order(ByteOrder.LITTLE_ENDIAN);
+            }
+            // Отображение остается действительным после закрытия канала
+            return new MappedTabulatedFunction(chunks, count, uniform, left, right, checksum);
+        }
+    }
+
+    // Записывает функцию в файл в формате отображения; равномерная сетка сохраняется без абсцисс
+    public static void write(TabulatedFunction function, Path path) throws IOException {
+        int count = function.getPointsCount();
+        if (count < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+        double left = function.getPointX(0);
+        double right = function.getPointX(count - 1);
+        double gridStep = (right - left) / (count - 1);
+
+        // Сетка считается равномерной, только если абсциссы восстанавливаются побитово точно
+        boolean uniform = true;
+        for (int i = 0; i < count && uniform; i++) {
+            uniform = function.getPointX(i) == left + i * gridStep;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            CRC32C crc = new CRC32C();
+            channel.position(HEADER_SIZE);
+
+            if (!uniform) {
+                for (int i = 0; i < count; i++) {
+                    putDouble(channel, buffer, crc, function.getPointX(i));
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                putDouble(channel, buffer, crc, function.getPointY(i));
+            }
+            flush(channel, buffer, crc);
+
+            buffer.clear();
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(uniform ? FLAG_UNIFORM : 0).putInt(count)
+                  .putLong(crc.getValue()).putDouble(left).putDouble(right);
+            buffer.flip();
+            long position = 0;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+
+    private static void putDouble(FileChannel channel, ByteBuffer buffer, CRC32C crc, double value) throws IOException {
+        if (buffer.remaining() < 8) {
+            flush(channel, buffer, crc);
+        }
+        buffer.putDouble(value);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Пересчитывает CRC32C данных и сравнивает с заголовком; требует чтения всего файла
+    public boolean verifyChecksum() {
+        CRC32C crc = new CRC32C();
+        long end = ysOffset + 8L * pointsCount;
+        long position = HEADER_SIZE;
+        while (position < end) {
+            ByteBuffer chunk = chunks[(int) (position >>> CHUNK_SHIFT)].duplicate();
+            int from = (int) (position & CHUNK_MASK);
+            int to = (int) Math.min(chunk.capacity(), from + (end - position));
+            chunk.limit(to).position(from);
+            crc.update(chunk);
+            position += to - from;
+        }
+        return crc.getValue() == checksum;
+    }
+
+    // true, если в файле сохранена равномерная сетка (абсциссы вычисляются, а не читаются)
+    public boolean isUniformGrid() {
+        return uniformGrid;
+    }
+
+    private double readDouble(long offset) {
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getDouble((int) (offset & CHUNK_MASK));
+    }
+
+    private double x(int i) {
+        return uniformGrid ? leftX + i * step : readDouble(xsOffset + 8L * i);
+    }
+
+    private double y(int i) {
+        return readDouble(ysOffset + 8L * i);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException("Индекс " + index + " выходит за границы [0, " + (pointsCount-1) + "]");
+        }
+    }
+
+    @Override
+    public Iterator<FunctionPoint> iterator() {
+        return new Iterator<FunctionPoint>() {
+            private int currentIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                return currentIndex < pointsCount;
+            }
+
+            @Override
+            public FunctionPoint next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("Нет следующего элемента");
+                }
+                FunctionPoint point = new FunctionPoint(x(currentIndex), y(currentIndex));
+                currentIndex++;
+                return point;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Удаление не поддерживается");
+            }
+        };
+    }
+
+    public double getLeftDomainBorder() {
+        return leftX;
+    }
+
+    public double getRightDomainBorder() {
+        return x(pointsCount - 1);
+    }
+
+    public double getFunctionValue(double x) {
+        if (x < getLeftDomainBorder() || x > getRightDomainBorder()) {
+            return Double.NaN;
+        }
+
+        int i = findSegmentIndex(x);
+        double x1 = x(i);
+        double x2 = x(i + 1);
+        double y1 = y(i);
+        double y2 = y(i + 1);
+        return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    }
+
+    // Индекс левого конца отрезка, содержащего x: на равномерной сетке O(1), иначе бинарный поиск
+    private int findSegmentIndex(double x) {
+        int last = pointsCount - 2;
+        if (uniformGrid) {
+            int i = (int) ((x - leftX) / step);
+            if (i > last) i = last;
+            if (i < 0) i = 0;
+            while (i > 0 && x < x(i)) i--;
+            while (i < last && x >= x(i + 1)) i++;
+            return i;
+        }
+
+        int low = 0;
+        int high = last;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (x(mid) <= x) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    public FunctionPoint getPoint(int index) {
+        checkIndex(index);
+        return new FunctionPoint(x(index), y(index));
+    }
+
+    public double getPointX(int index) {
+        checkIndex(index);
+        return x(index);
+    }
+
+    public double getPointY(int index) {
+        checkIndex(index);
+        return y(index);
+    }
+
+    public void forEachPoint(FunctionPointConsumer action) {
+        for (int i = 0; i < pointsCount; i++) {
+            action.accept(x(i), y(i));
+        }
+    }
+
+    public void copyPoints(int fromIndex, double[] xs, double[] ys, int count) {
+        TabulatedFunctions.checkCopyRange(this, fromIndex, xs, ys, count);
+        for (int i = 0; i < count; i++) {
+            xs[i] = x(fromIndex + i);
+            ys[i] = y(fromIndex + i);
+        }
+    }
+
+    // Функция только для чтения: все методы изменения бросают UnsupportedOperationException
+    public void setPoint(int index, FunctionPoint point) {
+        throw new UnsupportedOperationException("Функция, отображенная из файла, доступна только для чтения");
+    }
+
+    public void setPointX(int index, double x) {
+        throw new UnsupportedOperationException("Функция, отображенная из файла, доступна только для чтения");
+    }
+
+    public void setPointY(int index, double y) {
+        throw new UnsupportedOperationException("Функция, отображенная из файла, доступна только для чтения");
+    }
+
+    public void deletePoint(int index) {
+        throw new UnsupportedOperationException("Функция, отображенная из файла, доступна только для чтения");
+    }
+
+    public void addPoint(FunctionPoint point) {
+        throw new UnsupportedOperationException("Функция, отображенная из файла, доступна только для чтения");
+    }
+
+    public void printTabulatedFunction() {
+        for (int i = 0; i < pointsCount; i++) {
+            System.out.println("x = " + x(i) + ", y = " + y(i));
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (int i = 0; i < pointsCount; i++) {
+            sb.append("(").append(x(i)).append("; ").append(y(i)).append(")");
+            if (i < pointsCount - 1) {
+                sb.append(", ");
+            }
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TabulatedFunction)) return false;
+        return TabulatedFunctions.contentEquals(this, (TabulatedFunction) o);
+    }
+
+    @Override
+    public long contentHash() {
+        long hash = contentHash;
+        if (hash == 0) {
+            hash = TabulatedFunction.super.contentHash();
+            contentHash = hash;
+        }
+        return hash;
+    }
+
+    @Override
+    public int hashCode() {
+        return TabulatedFunctions.hashCode(contentHash());
+    }
+
+    // Объект неизменяем, поэтому копия разделяет отображение файла
+    @Override
+    public Object clone() {
+        return new MappedTabulatedFunction(chunks, pointsCount, uniformGrid, leftX, rightX, checksum);
+    }
+}
@@ -0,0 +1,135 @@
+package functions;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+
+// Фабрика, создающая объекты заданного класса через его публичные конструкторы
+// (double, double, int), (double, double, double[]) и (FunctionPoint[])
+// Конструкторы ищутся один раз для каждого класса: фабрика хранится в ClassValue, а объекты создаются
+// через MethodHandle, поэтому повторные вызовы не выполняют поиск конструкторов и Constructor.newInstance
+final class ReflectiveTabulatedFunctionFactory implements TabulatedFunctionFactory {
+    private static final ClassValue<ReflectiveTabulatedFunctionFactory> FACTORIES =
+        new ClassValue<ReflectiveTabulatedFunctionFactory>() {
+            @Override
+            protected ReflectiveTabulatedFunctionFactory computeValue(Class<?> type) {
+                return new ReflectiveTabulatedFunctionFactory(type);
+            }
+        };
+
+    private static final MethodType BY_COUNT = MethodType.methodType(TabulatedFunction.class, double.class, double.class, int.class);
+    private static final MethodType BY_VALUES = MethodType.methodType(TabulatedFunction.class, double.class, double.class, double[].class);
+    private static final MethodType BY_POINTS = MethodType.methodType(TabulatedFunction.class, FunctionPoint[].class);
+
+    private final Class<?> functionClass;
+    // Обработчики конструкторов; если конструктор недоступен, обработчик равен null, а причина хранится рядом
+    private final MethodHandle byCount;
+    private final MethodHandle byValues;
+    private final MethodHandle byPoints;
+    private final ReflectiveOperationException byCountError;
+    private final ReflectiveOperationException byValuesError;
+    private final ReflectiveOperationException byPointsError;
+
+    private ReflectiveTabulatedFunctionFactory(Class<?> functionClass) {
+        this.functionClass = functionClass;
+
+        MethodHandle[] handles = new MethodHandle[3];
+        ReflectiveOperationException[] errors = new ReflectiveOperationException[3];
+        MethodType[] types = {BY_COUNT, BY_VALUES, BY_POINTS};
+        for (int i = 0; i < types.length; i++) {
+            try {
+                Constructor<?> constructor = functionClass.getConstructor(types[i].parameterArray());
+                // Constructor.newInstance бросал для абстрактного класса InstantiationException - сохраняем это
+                if (Modifier.isAbstract(functionClass.getModifiers())) {
+                    throw new InstantiationException(functionClass.getName());
+                }
+                handles[i] = MethodHandles.publicLookup().unreflectConstructor(constructor).asType(types[i]);
+            } catch (ReflectiveOperationException e) {
+                errors[i] = e;
+            }
+        }
+        byCount = handles[0];
+        byValues = handles[1];
+        byPoints = handles[2];
+        byCountError = errors[0];
+        byValuesError = errors[1];
+        byPointsError = errors[2];
+    }
+
+    // Фабрика для класса functionClass; проверка того, что класс реализует TabulatedFunction, выполняется при каждом
+    // вызове (isAssignableFrom - встроенная операция JVM), поиск конструкторов - только при первом
+    static ReflectiveTabulatedFunctionFactory forClass(Class<?> functionClass) {
+        if (!TabulatedFunction.class.isAssignableFrom(functionClass)) {
+            throw new IllegalArgumentException(
+                "Класс " + functionClass.getName() + " не реализует интерфейс TabulatedFunction");
+        }
+        return FACTORIES.get(functionClass);
+    }
+
+    public TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount) {
+        if (byCount == null) {
+            throw unavailable(byCountError, "(double, double, int)");
+        }
+        try {
+            return (TabulatedFunction) byCount.invokeExact(leftX, rightX, pointsCount);
+        } catch (Throwable e) {
+            throw creationFailed(e);
+        }
+    }
+
+    public TabulatedFunction createTabulatedFunction(double leftX, double rightX, double[] values) {
+        if (byValues == null) {
+            throw unavailable(byValuesError, "(double, double, double[])");
+        }
+        try {
+            return (TabulatedFunction) byValues.invokeExact(leftX, rightX, values);
+        } catch (Throwable e) {
+            throw creationFailed(e);
+        }
+    }
+
+    public TabulatedFunction createTabulatedFunction(FunctionPoint[] points) {
+        if (byPoints == null) {
+            throw unavailable(byPointsError, "(FunctionPoint[])");
+        }
+        try {
+            return (TabulatedFunction) byPoints.invokeExact(points);
+        } catch (Throwable e) {
+            throw creationFailed(e);
+        }
+    }
+
+    // Функция по равномерной сетке [leftX, rightX] и значениям в ее узлах (для TabulatedFunctions.tabulate)
+    // Если у класса нет конструктора (double, double, double[]), точки собираются в FunctionPoint[] -
+    // раньше табулирование требовало только конструктор (FunctionPoint[])
+    TabulatedFunction createTabulatedFunctionOnGrid(double leftX, double rightX, double[] values) {
+        if (byValues != null) {
+            return createTabulatedFunction(leftX, rightX, values);
+        }
+        FunctionPoint[] points = new FunctionPoint[values.length];
+        double step = (rightX - leftX) / (values.length - 1);
+        for (int i = 0; i < values.length; i++) {
+            points[i] = new FunctionPoint(leftX + i * step, values[i]);
+        }
+        return createTabulatedFunction(points);
+    }
+
+    private IllegalArgumentException unavailable(ReflectiveOperationException cause, String signature) {
+        if (cause instanceof NoSuchMethodException) {
+            return new IllegalArgumentException(
+                "Класс " + functionClass.getName() + " не имеет конструктора " + signature, cause);
+        }
+        return new IllegalArgumentException("Ошибка при создании объекта " + functionClass.getName(), cause);
+    }
+
+    // Исключение из конструктора оборачивается так же, как раньше при Constructor.newInstance;
+    // ошибки JVM (нехватка памяти и т.п.) пробрасываются как есть
+    private IllegalArgumentException creationFailed(Throwable cause) {
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IllegalArgumentException("Ошибка при создании объекта " + functionClass.getName(), cause);
+    }
+}
@@ -16,8 +16,119 @@ public interface TabulatedFunction extends Function, Iterable<FunctionPoint>, Cl
     void deletePoint(int index); // Удаление точки по индексу
     void addPoint(FunctionPoint point) throws InappropriateFunctionPointException; // Добавление точки
     
+    // Пакетное добавление: точки упорядочиваются, проверяются на совпадение X между собой и с существующими
+    // и вливаются в хранилище за один проход; при ошибке функция не меняется
+    default void addPoints(FunctionPoint[] points) throws InappropriateFunctionPointException {
+        double[][] batch = TabulatedFunctions.sortedBatch(points);
+        int count = getPointsCount();
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        copyPoints(0, xs, ys, count);
+        // Слияние только проверяет пакет; реализации заменяют этот метод вставкой за один проход
+        TabulatedFunctions.mergeBatch(xs, ys, count, batch, count + batch[0].length);
+        for (int i = 0; i < batch[0].length; i++) {
+            addPoint(new FunctionPoint(batch[0][i], batch[1][i]));
+        }
+    }
+
+    // Пакетное удаление точек с индексами fromIndex .. toIndex - 1
+    default void deletePoints(int fromIndex, int toIndex) {
+        TabulatedFunctions.checkDeleteRange(getPointsCount(), fromIndex, toIndex);
+        for (int i = toIndex - 1; i >= fromIndex; i--) {
+            deletePoint(i);
+        }
+    }
+
+    // Удаление всех точек с leftX <= x <= rightX; возвращает количество удаленных точек
+    default int deletePointsBetween(double leftX, double rightX) {
+        if (!(leftX <= rightX)) {
+            throw new IllegalArgumentException("Левая граница диапазона больше правой");
+        }
+        int fromIndex = countPointsBelow(leftX, false);
+        int toIndex = countPointsBelow(rightX, true);
+        if (fromIndex < toIndex) {
+            deletePoints(fromIndex, toIndex);
+        }
+        return toIndex - fromIndex;
+    }
+
+    // Количество точек с x < bound (или x <= bound при inclusive) - бинарный поиск по getPointX
+    private int countPointsBelow(double bound, boolean inclusive) {
+        int low = 0;
+        int high = getPointsCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            double x = getPointX(mid);
+            if (x < bound || inclusive && x == bound) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
     // Метод вывода
     void printTabulatedFunction(); // вывод в консоль
+
+    // Обход всех точек по возрастанию X без создания объектов; во время обхода функцию изменять нельзя
+    default void forEachPoint(FunctionPointConsumer action) {
+        int count = getPointsCount();
+        for (int i = 0; i < count; i++) {
+            action.accept(getPointX(i), getPointY(i));
+        }
+    }
+
+    // Пакетное копирование координат точек fromIndex .. fromIndex + count - 1 в xs[0 .. count - 1] и ys[0 .. count - 1]
+    // без создания объектов FunctionPoint; реализации проходят свое хранилище за один проход
+    default void copyPoints(int fromIndex, double[] xs, double[] ys, int count) {
+        TabulatedFunctions.checkCopyRange(this, fromIndex, xs, ys, count);
+        for (int i = 0; i < count; i++) {
+            xs[i] = getPointX(fromIndex + i);
+            ys[i] = getPointY(fromIndex + i);
+        }
+    }
+    
+    // 64-битный хэш содержимого: равные (в смысле equals) функции любых реализаций имеют равные хэши,
+    // поэтому различие хэшей позволяет сразу вернуть false в equals. Реализации из этого пакета
+    // поддерживают хэш при каждом изменении и возвращают его за O(1); здесь он вычисляется обходом точек
+    default long contentHash() {
+        long[] sum = new long[1];
+        forEachPoint((x, y) -> sum[0] += TabulatedFunctions.pointHash(x, y));
+        return TabulatedFunctions.contentHash(sum[0]);
+    }
+    
+    // Неизменяемая копия текущего состояния; ее можно передавать другим потокам без синхронизации
+    default ImmutableTabulatedFunction snapshot() {
+        return ImmutableTabulatedFunction.copyOf(this);
+    }
+    
+    // Точный интеграл кусочно-линейной функции: сумма трапеций между точками на [leftBorder, rightBorder]
+    // Реализации могут хранить накопленные площади и отвечать за O(log n)
+    default double integrate(double leftBorder, double rightBorder) {
+        Functions.checkIntegrationBorders(this, leftBorder, rightBorder);
+        
+        double integral = 0.0;
+        int count = getPointsCount();
+        for (int i = 0; i < count - 1; i++) {
+            double x1 = getPointX(i);
+            if (x1 >= rightBorder) {
+                break;
+            }
+            double x2 = getPointX(i + 1);
+            double from = Math.max(x1, leftBorder);
+            double to = Math.min(x2, rightBorder);
+            if (from >= to) {
+                continue;
+            }
+            double y1 = getPointY(i);
+            double y2 = getPointY(i + 1);
+            double yFrom = y1 + (y2 - y1) * (from - x1) / (x2 - x1);
+            double yTo = y1 + (y2 - y1) * (to - x1) / (x2 - x1);
+            integral += (yFrom + yTo) * (to - from) / 2.0;
+        }
+        return integral;
+    }
     
     Object clone();
 }
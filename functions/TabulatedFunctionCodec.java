@@ -0,0 +1,370 @@
+package functions;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+// Сжатый двоичный формат табулированных функций (см. outputCompressedTabulatedFunction)
+// Заголовок: int MAGIC, byte VERSION, byte флаги, int количество точек (big-endian, как у DataOutputStream)
+// Равномерная сетка (бит FLAG_UNIFORM) хранится как double leftX, double rightX: абсциссы восстанавливаются
+// как leftX + i * step, где step = (rightX - leftX) / (n - 1) вычисляется один раз (так же, как в конструкторах),
+// поэтому флаг ставится, только если все X, включая X[0] = leftX + 0 * step, совпадают с ней побитово
+// (у -0.0 это не так). Иначе X кодируются разностями второго порядка битовых представлений,
+// а Y - исключающим ИЛИ с предыдущим значением (схема Gorilla).
+// Формат без потерь: восстанавливаются все биты, включая NaN, -0.0 и бесконечности.
+final class TabulatedFunctionCodec {
+    static final int MAGIC = 0x5441425A; // "TABZ"
+    static final int VERSION = 1;
+    static final int FLAG_UNIFORM = 1;
+
+    private static final int BLOCK_SIZE = 1 << 12;
+
+    private TabulatedFunctionCodec() {
+    }
+
+    static void encode(TabulatedFunction function, OutputStream out) throws IOException {
+        int count = function.getPointsCount();
+        BitOutput bits = new BitOutput(out);
+
+        // Проверка равномерности сетки и кодирование идут блоками через copyPoints
+        int blockSize = Math.min(count, BLOCK_SIZE);
+        double[] xs = new double[blockSize];
+        double[] ys = new double[blockSize];
+        double left = count > 0 ? function.getPointX(0) : 0.0;
+        double right = count > 0 ? function.getPointX(count - 1) : 0.0;
+        double step = (right - left) / (count - 1);
+        boolean uniform = count >= 2;
+        for (int from = 0; from < count && uniform; from += blockSize) {
+            int n = Math.min(blockSize, count - from);
+            function.copyPoints(from, xs, ys, n);
+            // Сравнение битов, а не ==: иначе -0.0 совпадет с 0.0, а декодер вернет left + 0 * step = +0.0
+            for (int i = 0; i < n && uniform; i++) {
+                uniform = Double.doubleToRawLongBits(xs[i])
+                    == Double.doubleToRawLongBits(left + (from + i) * step);
+            }
+        }
+
+        bits.writeBits(MAGIC, 32);
+        bits.writeBits(VERSION, 8);
+        bits.writeBits(uniform ? FLAG_UNIFORM : 0, 8);
+        bits.writeBits(count, 32);
+        if (uniform) {
+            bits.writeBits(Double.doubleToRawLongBits(left), 64);
+            bits.writeBits(Double.doubleToRawLongBits(right), 64);
+        }
+
+        XEncoder xEncoder = new XEncoder();
+        YEncoder yEncoder = new YEncoder();
+        for (int from = 0; from < count; from += blockSize) {
+            int n = Math.min(blockSize, count - from);
+            function.copyPoints(from, xs, ys, n);
+            for (int i = 0; i < n; i++) {
+                if (!uniform) {
+                    xEncoder.encode(bits, Double.doubleToRawLongBits(xs[i]));
+                }
+                yEncoder.encode(bits, Double.doubleToRawLongBits(ys[i]));
+            }
+        }
+        bits.flush();
+    }
+
+    // Потоковый декодер: заголовок читается в конструкторе, точки - по одной методом next()
+    static final class Decoder {
+        private final BitInput bits;
+        private final int count;
+        private final boolean uniform;
+        private final double leftX;
+        private final double rightX;
+        private final double step;
+        private final XDecoder xDecoder = new XDecoder();
+        private final YDecoder yDecoder = new YDecoder();
+        private int index;
+        private double x;
+        private double y;
+
+        Decoder(InputStream in) throws IOException {
+            bits = new BitInput(in);
+            if ((int) bits.readBits(32) != MAGIC) {
+                throw new IOException("Поток не содержит сжатую табулированную функцию");
+            }
+            int version = (int) bits.readBits(8);
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия формата: " + version);
+            }
+            int flags = (int) bits.readBits(8);
+            count = (int) bits.readBits(32);
+            if (count < 0) {
+                throw new IOException("Некорректное количество точек: " + count);
+            }
+            uniform = (flags & FLAG_UNIFORM) != 0;
+            if (uniform) {
+                leftX = Double.longBitsToDouble(bits.readBits(64));
+                rightX = Double.longBitsToDouble(bits.readBits(64));
+            } else {
+                leftX = rightX = Double.NaN;
+            }
+            step = (rightX - leftX) / (count - 1);
+        }
+
+        int getPointsCount() {
+            return count;
+        }
+
+        boolean isUniformGrid() {
+            return uniform;
+        }
+
+        double getLeftX() {
+            return leftX;
+        }
+
+        double getRightX() {
+            return rightX;
+        }
+
+        boolean hasNext() {
+            return index < count;
+        }
+
+        // Декодирует следующую точку; ее координаты доступны через x() и y()
+        void next() throws IOException {
+            if (index >= count) {
+                throw new EOFException("Все точки уже прочитаны");
+            }
+            x = uniform ? leftX + index * step : Double.longBitsToDouble(xDecoder.decode(bits));
+            y = Double.longBitsToDouble(yDecoder.decode(bits));
+            index++;
+        }
+
+        double x() {
+            return x;
+        }
+
+        double y() {
+            return y;
+        }
+    }
+
+    // Абсциссы: первое значение целиком, затем разности второго порядка битовых представлений
+    // (для возрастающих X одного знака биты тоже возрастают, и почти равномерный шаг дает малые разности).
+    // Префиксный код: 0 - разность 0; 10 - 7 бит; 110 - 12 бит; 1110 - 20 бит; 11110 - 32 бита; 11111 - 64 бита
+    private static final int[] DELTA_WIDTHS = {7, 12, 20, 32};
+
+    private static final class XEncoder {
+        private int written;
+        private long previous;
+        private long previousDelta;
+
+        void encode(BitOutput bits, long value) throws IOException {
+            if (written == 0) {
+                bits.writeBits(value, 64);
+            } else {
+                long delta = value - previous;
+                long deltaOfDelta = delta - (written == 1 ? 0 : previousDelta);
+                writeDeltaOfDelta(bits, deltaOfDelta);
+                previousDelta = delta;
+            }
+            previous = value;
+            written++;
+        }
+
+        private static void writeDeltaOfDelta(BitOutput bits, long value) throws IOException {
+            if (value == 0) {
+                bits.writeBits(0, 1);
+                return;
+            }
+            long zigzag = (value << 1) ^ (value >> 63);
+            for (int i = 0; i < DELTA_WIDTHS.length; i++) {
+                int width = DELTA_WIDTHS[i];
+                if (zigzag >>> width == 0) {
+                    // i + 1 единиц и завершающий ноль
+                    bits.writeBits((1L << (i + 2)) - 2, i + 2);
+                    bits.writeBits(zigzag, width);
+                    return;
+                }
+            }
+            bits.writeBits(0x1F, 5);
+            bits.writeBits(zigzag, 64);
+        }
+    }
+
+    private static final class XDecoder {
+        private int read;
+        private long previous;
+        private long previousDelta;
+
+        long decode(BitInput bits) throws IOException {
+            long value;
+            if (read == 0) {
+                value = bits.readBits(64);
+            } else {
+                long delta = readDeltaOfDelta(bits) + (read == 1 ? 0 : previousDelta);
+                value = previous + delta;
+                previousDelta = delta;
+            }
+            previous = value;
+            read++;
+            return value;
+        }
+
+        private static long readDeltaOfDelta(BitInput bits) throws IOException {
+            int ones = 0;
+            while (ones < 5 && bits.readBits(1) == 1) {
+                ones++;
+            }
+            if (ones == 0) {
+                return 0;
+            }
+            long zigzag = bits.readBits(ones == 5 ? 64 : DELTA_WIDTHS[ones - 1]);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+    }
+
+    // Ординаты: первое значение целиком, затем XOR с предыдущим значением
+    // 0 - значение повторяется; 10 - значащие биты помещаются в окно предыдущего XOR;
+    // 11 - 6 бит числа ведущих нулей, 6 бит (длина - 1) и сами значащие биты
+    private static final class YEncoder {
+        private boolean started;
+        private long previous;
+        private int leading = -1;
+        private int trailing;
+
+        void encode(BitOutput bits, long value) throws IOException {
+            if (!started) {
+                bits.writeBits(value, 64);
+                started = true;
+                previous = value;
+                return;
+            }
+            long xor = value ^ previous;
+            previous = value;
+            if (xor == 0) {
+                bits.writeBits(0, 1);
+                return;
+            }
+            int newLeading = Long.numberOfLeadingZeros(xor);
+            int newTrailing = Long.numberOfTrailingZeros(xor);
+            if (leading >= 0 && newLeading >= leading && newTrailing >= trailing) {
+                bits.writeBits(0b10, 2);
+                bits.writeBits(xor >>> trailing, 64 - leading - trailing);
+            } else {
+                leading = newLeading;
+                trailing = newTrailing;
+                int length = 64 - leading - trailing;
+                bits.writeBits(0b11, 2);
+                bits.writeBits(leading, 6);
+                bits.writeBits(length - 1, 6);
+                bits.writeBits(xor >>> trailing, length);
+            }
+        }
+    }
+
+    private static final class YDecoder {
+        private boolean started;
+        private long previous;
+        private int leading;
+        private int trailing;
+
+        long decode(BitInput bits) throws IOException {
+            if (!started) {
+                started = true;
+                previous = bits.readBits(64);
+                return previous;
+            }
+            if (bits.readBits(1) == 0) {
+                return previous;
+            }
+            if (bits.readBits(1) == 1) {
+                leading = (int) bits.readBits(6);
+                int length = (int) bits.readBits(6) + 1;
+                if (leading + length > 64) {
+                    throw new IOException("Поврежденные данные сжатой функции");
+                }
+                trailing = 64 - leading - length;
+            }
+            previous ^= bits.readBits(64 - leading - trailing) << trailing;
+            return previous;
+        }
+    }
+
+    // Побитовая запись со своим буфером байтов, старшие биты вперед
+    private static final class BitOutput {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[1 << 13];
+        private int position;
+        private long accumulator;
+        private int accumulated; // Количество битов в accumulator, всегда меньше 8 между вызовами
+
+        BitOutput(OutputStream out) {
+            this.out = out;
+        }
+
+        // Записывает младшие width битов value, 0 <= width <= 64
+        void writeBits(long value, int width) throws IOException {
+            if (width > 32) {
+                writeBits(value >>> 32, width - 32);
+                width = 32;
+            }
+            if (width == 0) {
+                return;
+            }
+            accumulator = (accumulator << width) | (value & (-1L >>> (64 - width)));
+            accumulated += width;
+            while (accumulated >= 8) {
+                accumulated -= 8;
+                if (position == buffer.length) {
+                    out.write(buffer, 0, position);
+                    position = 0;
+                }
+                buffer[position++] = (byte) (accumulator >>> accumulated);
+            }
+        }
+
+        // Дописывает неполный последний байт нулями и сбрасывает буфер в поток
+        void flush() throws IOException {
+            if (accumulated > 0) {
+                writeBits(0, 8 - accumulated);
+            }
+            out.write(buffer, 0, position);
+            position = 0;
+            out.flush();
+        }
+    }
+
+    // Побитовое чтение с собственным буфером; из потока читается не больше, чем нужно блоками буфера
+    private static final class BitInput {
+        private final InputStream in;
+        private final byte[] buffer = new byte[1 << 13];
+        private int position;
+        private int limit;
+        private long accumulator;
+        private int accumulated;
+
+        BitInput(InputStream in) {
+            this.in = in;
+        }
+
+        // Читает width битов, 0 <= width <= 64
+        long readBits(int width) throws IOException {
+            if (width > 32) {
+                long high = readBits(width - 32);
+                return (high << 32) | readBits(32);
+            }
+            while (accumulated < width) {
+                if (position == limit) {
+                    limit = in.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        throw new EOFException("Неожиданный конец данных сжатой функции");
+                    }
+                }
+                accumulator = (accumulator << 8) | (buffer[position++] & 0xFF);
+                accumulated += 8;
+            }
+            accumulated -= width;
+            return width == 0 ? 0 : (accumulator >>> accumulated) & (-1L >>> (64 - width));
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package functions;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+// Буферизованный разбор чисел текстового формата табулированных функций (см. writeTabulatedFunction)
+// Числа разделяются пробельными символами и записываются в формате Double.toString, включая
+// экспоненциальную запись (1.5E-10), NaN и Infinity. Результат совпадает с Double.parseDouble побитово.
+// Обычные числа разбираются без создания объектов: до 19 значащих цифр переводятся в double быстрым
+// путем Клингера или алгоритмом Айзеля-Лемира, в остальных (редких) случаях - через Double.parseDouble.
+final class TabulatedFunctionTextParser {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    // Текущая лексема и ее позиция в тексте для сообщений об ошибках
+    private char[] token = new char[32];
+    private int tokenLength;
+    private int line = 1;
+    private int column = 1;
+    private int tokenLine;
+    private int tokenColumn;
+
+    TabulatedFunctionTextParser(Reader in) {
+        this.in = in;
+    }
+
+    // Читает целое неотрицательное число; expected - описание ожидаемого значения для сообщения об ошибке
+    int nextCount(String expected) throws IOException {
+        if (!nextToken()) {
+            throw error(expected + ", а достигнут конец данных");
+        }
+        long value = 0;
+        for (int i = 0; i < tokenLength; i++) {
+            char c = token[i];
+            if (c < '0' || c > '9' || value > Integer.MAX_VALUE) {
+                throw error(expected + ", а найдено '" + new String(token, 0, tokenLength) + "'");
+            }
+            value = value * 10 + (c - '0');
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw error(expected + ", а найдено '" + new String(token, 0, tokenLength) + "'");
+        }
+        return (int) value;
+    }
+
+    // Читает число с плавающей точкой
+    double nextDouble(String expected) throws IOException {
+        if (!nextToken()) {
+            throw error(expected + ", а достигнут конец данных");
+        }
+        return parseToken(expected);
+    }
+
+    private RuntimeException error(String message) {
+        return new RuntimeException(message + " (строка " + tokenLine + ", столбец " + tokenColumn + ")");
+    }
+
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = in.read(buffer, 0, BUFFER_SIZE);
+        } while (read == 0);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    // Пропускает пробельные символы и копирует следующую лексему в token
+    private boolean nextToken() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                tokenLine = line;
+                tokenColumn = column;
+                return false;
+            }
+            char c = buffer[position];
+            if (c > ' ') {
+                break;
+            }
+            position++;
+            if (c == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+
+        tokenLine = line;
+        tokenColumn = column;
+        tokenLength = 0;
+        while (position < limit || fill()) {
+            char c = buffer[position];
+            if (c <= ' ') {
+                break;
+            }
+            if (tokenLength == token.length) {
+                token = Arrays.copyOf(token, tokenLength * 2);
+            }
+            token[tokenLength++] = c;
+            position++;
+            column++;
+        }
+        return true;
+    }
+
+    private double parseToken(String expected) {
+        int i = 0;
+        boolean negative = false;
+        if (i < tokenLength && (token[i] == '-' || token[i] == '+')) {
+            negative = token[i] == '-';
+            i++;
+        }
+
+        // Значащие цифры накапливаются в mantissa (не более 19, как беззнаковое 64-битное число),
+        // показатель степени 10 - в exponent
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean truncated = false;
+        boolean anyDigits = false;
+
+        for (; i < tokenLength && token[i] >= '0' && token[i] <= '9'; i++) {
+            anyDigits = true;
+            int digit = token[i] - '0';
+            if (significantDigits < 19) {
+                mantissa = mantissa * 10 + digit;
+                if (mantissa != 0) significantDigits++;
+            } else {
+                exponent++;
+                truncated |= digit != 0;
+            }
+        }
+        if (i < tokenLength && token[i] == '.') {
+            i++;
+            for (; i < tokenLength && token[i] >= '0' && token[i] <= '9'; i++) {
+                anyDigits = true;
+                int digit = token[i] - '0';
+                if (significantDigits < 19) {
+                    mantissa = mantissa * 10 + digit;
+                    if (mantissa != 0) significantDigits++;
+                    exponent--;
+                } else {
+                    truncated |= digit != 0;
+                }
+            }
+        }
+        if (anyDigits && i < tokenLength && (token[i] == 'e' || token[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < tokenLength && (token[i] == '-' || token[i] == '+')) {
+                negativeExponent = token[i] == '-';
+                i++;
+            }
+            int start = i;
+            int explicitExponent = 0;
+            for (; i < tokenLength && token[i] >= '0' && token[i] <= '9'; i++) {
+                if (explicitExponent < 100000) {
+                    explicitExponent = explicitExponent * 10 + (token[i] - '0');
+                }
+            }
+            if (i == start) {
+                anyDigits = false;
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (!anyDigits || i != tokenLength) {
+            // NaN и Infinity записываются Double.toString словами
+            String text = new String(token, 0, tokenLength);
+            if (text.equals("NaN") || text.endsWith("Infinity") && text.length() <= 9) {
+                try {
+                    return Double.parseDouble(text);
+                } catch (NumberFormatException e) {
+                    // Сообщение об ошибке формируется ниже
+                }
+            }
+            throw error(expected + ", а найдено '" + text + "'");
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (truncated) {
+            value = Math.abs(Double.parseDouble(new String(token, 0, tokenLength)));
+        } else if (mantissa > 0 && mantissa <= 1L << 53 && exponent >= -22 && exponent <= 22) {
+            // Быстрый путь Клингера: мантисса и степень десяти представимы точно, округление одно
+            value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        } else {
+            long bits = eiselLemire(mantissa, exponent);
+            value = bits >= 0 ? Double.longBitsToDouble(bits)
+                              : Math.abs(Double.parseDouble(new String(token, 0, tokenLength)));
+        }
+        return negative ? -value : value;
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // 128-битные нормализованные мантиссы степеней десяти 10^q, q в [MIN_EXPONENT, MAX_EXPONENT]
+    private static final int MIN_EXPONENT = -348;
+    private static final int MAX_EXPONENT = 347;
+    private static final long[] POWERS_HIGH = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+    private static final long[] POWERS_LOW = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+
+    static {
+        // Таблица вычисляется один раз при загрузке класса; значения округлены вниз
+        for (int q = MIN_EXPONENT; q <= MAX_EXPONENT; q++) {
+            BigInteger value;
+            if (q >= 0) {
+                value = BigInteger.TEN.pow(q);
+                int shift = value.bitLength() - 128;
+                value = shift > 0 ? value.shiftRight(shift) : value.shiftLeft(-shift);
+            } else {
+                BigInteger divisor = BigInteger.TEN.pow(-q);
+                value = BigInteger.ONE.shiftLeft(divisor.bitLength() + 127).divide(divisor);
+            }
+            POWERS_HIGH[q - MIN_EXPONENT] = value.shiftRight(64).longValue();
+            POWERS_LOW[q - MIN_EXPONENT] = value.longValue();
+        }
+    }
+
+    // Алгоритм Айзеля-Лемира: возвращает биты double, равного mantissa * 10^exponent с корректным
+    // округлением, или -1, если результат нельзя гарантировать (тогда используется Double.parseDouble)
+    private static long eiselLemire(long mantissa, int exponent) {
+        if (exponent < MIN_EXPONENT || exponent > MAX_EXPONENT) {
+            return -1;
+        }
+        int leadingZeros = Long.numberOfLeadingZeros(mantissa);
+        mantissa <<= leadingZeros;
+        long resultExponent = ((217706L * exponent) >> 16) + 64 + 1023 - leadingZeros;
+
+        int index = exponent - MIN_EXPONENT;
+        long high = unsignedMultiplyHigh(mantissa, POWERS_HIGH[index]);
+        long low = mantissa * POWERS_HIGH[index];
+
+        // Уточнение вторым словом степени, если младшие биты не позволяют определить округление
+        if ((high & 0x1FF) == 0x1FF && Long.compareUnsigned(low + mantissa, mantissa) < 0) {
+            long yHigh = unsignedMultiplyHigh(mantissa, POWERS_LOW[index]);
+            long yLow = mantissa * POWERS_LOW[index];
+            long mergedHigh = high;
+            long mergedLow = low + yHigh;
+            if (Long.compareUnsigned(mergedLow, low) < 0) {
+                mergedHigh++;
+            }
+            if ((mergedHigh & 0x1FF) == 0x1FF && mergedLow + 1 == 0
+                    && Long.compareUnsigned(yLow + mantissa, mantissa) < 0) {
+                return -1;
+            }
+            high = mergedHigh;
+            low = mergedLow;
+        }
+
+        long msb = high >>> 63;
+        long resultMantissa = high >>> (msb + 9);
+        resultExponent -= 1 ^ msb;
+
+        // Точная середина между соседними double - неоднозначность округления
+        if (low == 0 && (high & 0x1FF) == 0 && (resultMantissa & 3) == 1) {
+            return -1;
+        }
+
+        resultMantissa += resultMantissa & 1;
+        resultMantissa >>>= 1;
+        if ((resultMantissa >>> 53) > 0) {
+            resultMantissa >>>= 1;
+            resultExponent++;
+        }
+        // Денормализованные числа и переполнение обрабатываются Double.parseDouble
+        if (resultExponent <= 0 || resultExponent >= 0x7FF) {
+            return -1;
+        }
+        return resultExponent << 52 | resultMantissa & 0x000FFFFFFFFFFFFFL;
+    }
+
+    private static long unsignedMultiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+}
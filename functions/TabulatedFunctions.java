@@ -1,14 +1,18 @@
 package functions;
 
 import java.io.*;
-import java.util.StringTokenizer;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
 public final class TabulatedFunctions {
-    // Приватное статическое поле для хранения текущей фабрики
+    // Глобальная фабрика по умолчанию; volatile - новое значение сразу видно всем потокам
     // Инициализируем фабрикой для ArrayTabulatedFunction по умолчанию
-    private static TabulatedFunctionFactory factory = 
+    private static volatile TabulatedFunctionFactory factory = 
         new ArrayTabulatedFunction.ArrayTabulatedFunctionFactory();
+    // Фабрика, привязанная к текущему потоку через withTabulatedFunctionFactory; null - используется глобальная
+    private static final ThreadLocal<TabulatedFunctionFactory> threadFactory = new ThreadLocal<>();
     
     // Приватный конструктор чтобы запретить создание экземпляров
     private TabulatedFunctions() {
@@ -16,32 +20,122 @@ public final class TabulatedFunctions {
     }
     
     // Метод для установки новой фабрики
-    // Позволяет динамически менять тип создаваемых объектов
+    // Меняет фабрику по умолчанию для всех потоков, кроме тех, где действует привязка withTabulatedFunctionFactory
     public static void setTabulatedFunctionFactory(TabulatedFunctionFactory newFactory) {
+        if (newFactory == null) {
+            throw new IllegalArgumentException("Фабрика не может быть null");
+        }
         factory = newFactory;
     }
+
+    // Фабрика, которую используют методы создания в текущем потоке
+    public static TabulatedFunctionFactory getTabulatedFunctionFactory() {
+        TabulatedFunctionFactory bound = threadFactory.get();
+        return bound != null ? bound : factory;
+    }
+
+    // Привязывает фабрику к текущему потоку до закрытия возвращенной области:
+    //     try (TabulatedFunctions.FactoryScope scope = TabulatedFunctions.withTabulatedFunctionFactory(f)) { ... }
+    // Другие потоки и глобальная фабрика не затрагиваются; области могут быть вложенными
+    public static FactoryScope withTabulatedFunctionFactory(TabulatedFunctionFactory scopedFactory) {
+        if (scopedFactory == null) {
+            throw new IllegalArgumentException("Фабрика не может быть null");
+        }
+        FactoryScope scope = new FactoryScope(threadFactory.get());
+        threadFactory.set(scopedFactory);
+        return scope;
+    }
+
+    // То же для класса реализации (см. createTabulatedFunction(Class, ...))
+    public static FactoryScope withTabulatedFunctionFactory(Class<?> functionClass) {
+        return withTabulatedFunctionFactory(ReflectiveTabulatedFunctionFactory.forClass(functionClass));
+    }
+
+    // Область действия фабрики, привязанной к потоку; close восстанавливает предыдущую привязку
+    public static final class FactoryScope implements AutoCloseable {
+        private final TabulatedFunctionFactory previous;
+        private final Thread owner = Thread.currentThread();
+        private boolean closed;
+
+        private FactoryScope(TabulatedFunctionFactory previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (Thread.currentThread() != owner) {
+                throw new IllegalStateException("Область фабрики должна закрываться в том же потоке, где была открыта");
+            }
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (previous == null) {
+                threadFactory.remove();
+            } else {
+                threadFactory.set(previous);
+            }
+        }
+    }
     
     // Три перегруженных фабричных метода создания табулированных функций
     // Делегируют создание объектов текущей фабрике
     
     // Создает табулированную функцию по границам и количеству точек
     public static TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount) {
-        return factory.createTabulatedFunction(leftX, rightX, pointsCount);
+        return getTabulatedFunctionFactory().createTabulatedFunction(leftX, rightX, pointsCount);
     }
     
     // Создает табулированную функцию по границам и массиву значений
     public static TabulatedFunction createTabulatedFunction(double leftX, double rightX, double[] values) {
-        return factory.createTabulatedFunction(leftX, rightX, values);
+        return getTabulatedFunctionFactory().createTabulatedFunction(leftX, rightX, values);
     }
     
     // Создает табулированную функцию по массиву точек
     public static TabulatedFunction createTabulatedFunction(FunctionPoint[] points) {
-        return factory.createTabulatedFunction(points);
+        return getTabulatedFunctionFactory().createTabulatedFunction(points);
     }
     
     // Существующие методы теперь используют фабрику вместо прямого создания объектов
     
+    // Значения вычисляются сразу в массив без промежуточного массива FunctionPoint. Функциям, хранящим ординаты
+    // в double[] (DoubleArray, Concurrent, Immutable и CopyOnWrite), этот массив передается во владение без
+    // копирования, если их создает стандартная фабрика; остальные строят свое хранилище прямо из него
     public static TabulatedFunction tabulate(Function function, double leftX, double rightX, int pointsCount) {
+        return createOwning(getTabulatedFunctionFactory(), leftX, rightX,
+            tabulateValues(function, leftX, rightX, pointsCount, false));
+    }
+    
+    // То же, что tabulate, но значения функции вычисляются параллельно в общем пуле ForkJoinPool
+    // Функция должна допускать одновременные вызовы getFunctionValue из нескольких потоков
+    public static TabulatedFunction tabulateParallel(Function function, double leftX, double rightX, int pointsCount) {
+        return createOwning(getTabulatedFunctionFactory(), leftX, rightX,
+            tabulateValues(function, leftX, rightX, pointsCount, true));
+    }
+    
+    // Создание функции фабрикой по массиву значений, на который больше никто не ссылается
+    // Классы сравниваются точно: наследник фабрики может создавать объекты по-своему
+    private static TabulatedFunction createOwning(TabulatedFunctionFactory factory,
+                                                  double leftX, double rightX, double[] values) {
+        Class<?> type = factory.getClass();
+        if (type == DoubleArrayTabulatedFunction.DoubleArrayTabulatedFunctionFactory.class) {
+            return new DoubleArrayTabulatedFunction(leftX, rightX, values, true);
+        }
+        if (type == ConcurrentTabulatedFunction.ConcurrentTabulatedFunctionFactory.class) {
+            return new ConcurrentTabulatedFunction(leftX, rightX, values, true);
+        }
+        if (type == ImmutableTabulatedFunction.ImmutableTabulatedFunctionFactory.class) {
+            return ImmutableTabulatedFunction.adopt(leftX, rightX, values);
+        }
+        if (type == CopyOnWriteTabulatedFunction.CopyOnWriteTabulatedFunctionFactory.class) {
+            return new CopyOnWriteTabulatedFunction(ImmutableTabulatedFunction.adopt(leftX, rightX, values));
+        }
+        return factory.createTabulatedFunction(leftX, rightX, values);
+    }
+    
+    // Вычисляет значения функции в pointsCount равноотстоящих точках [leftX, rightX]
+    // Абсциссы совпадают с теми, что строят конструкторы табулированных функций: leftX + i * step
+    private static double[] tabulateValues(Function function, double leftX, double rightX, int pointsCount, boolean parallel) {
         if (leftX < function.getLeftDomainBorder() || rightX > function.getRightDomainBorder()) {
             throw new IllegalArgumentException("Границы табулирования выходят за область определения функции");
         }
@@ -49,19 +143,23 @@ public final class TabulatedFunctions {
             throw new IllegalArgumentException("Количество точек должно быть не менее 2");
         }
 
-        // Создаем массив точек
-        FunctionPoint[] points = new FunctionPoint[pointsCount];
         double step = (rightX - leftX) / (pointsCount - 1);
-        
-        for (int i = 0; i < pointsCount; i++) {
-            double x = leftX + i * step;
-            double y = function.getFunctionValue(x);
-            points[i] = new FunctionPoint(x, y);
+        double[] values = new double[pointsCount];
+        if (parallel && pointsCount >= PARALLEL_TABULATION_THRESHOLD) {
+            Arrays.parallelSetAll(values, i -> function.getFunctionValue(leftX + i * step));
+        } else {
+            // Абсциссы записываются в массив значений и заменяются результатом пакетного вычисления
+            for (int i = 0; i < pointsCount; i++) {
+                values[i] = leftX + i * step;
+            }
+            function.getFunctionValues(values, values);
         }
-
-        // Используем фабрику 
-        return createTabulatedFunction(points);
+        return values;
     }
+    
+    // Меньше этого количества точек параллельное вычисление не окупается
+    private static final int PARALLEL_TABULATION_THRESHOLD = 1 << 12;
+    
     public static double getFunctionValue(TabulatedFunction function, double x) {
         return function.getFunctionValue(x);
     }
@@ -75,13 +173,25 @@ public final class TabulatedFunctions {
     }
 
     // Метод вывода в байтовый поток
+    // Формат: int количество точек, затем пары double x, y (big-endian, как у DataOutputStream)
+    // Координаты копируются блоками через copyPoints и пишутся в поток целыми массивами байтов
     public static void outputTabulatedFunction(TabulatedFunction function, OutputStream out) {
         try (DataOutputStream dos = new DataOutputStream(out)) {
-            dos.writeInt(function.getPointsCount());
-            for (int i = 0; i < function.getPointsCount(); i++) {
-                FunctionPoint point = function.getPoint(i);
-                dos.writeDouble(point.getX());
-                dos.writeDouble(point.getY());
+            int pointsCount = function.getPointsCount();
+            int blockSize = Math.min(pointsCount, EXPORT_BLOCK_SIZE);
+            double[] xs = new double[blockSize];
+            double[] ys = new double[blockSize];
+            ByteBuffer buffer = ByteBuffer.allocate(Math.max(Integer.BYTES, blockSize * 2 * Double.BYTES));
+
+            dos.writeInt(pointsCount);
+            for (int from = 0; from < pointsCount; from += blockSize) {
+                int count = Math.min(blockSize, pointsCount - from);
+                function.copyPoints(from, xs, ys, count);
+                buffer.clear();
+                for (int i = 0; i < count; i++) {
+                    buffer.putDouble(xs[i]).putDouble(ys[i]);
+                }
+                dos.write(buffer.array(), 0, buffer.position());
             }
         } catch (IOException e) {
             // Пробрасываем RuntimeException, так как IOException - проверяемое исключение
@@ -89,7 +199,295 @@ public final class TabulatedFunctions {
         }
     }
 
+    // Вывод в том же двоичном формате в буфер (например, прямой или отображенный в память)
+    // Порядок байтов берется из буфера; при нехватке места бросается BufferOverflowException
+    public static void outputTabulatedFunction(TabulatedFunction function, ByteBuffer buffer) {
+        int pointsCount = function.getPointsCount();
+        if (buffer.remaining() < Integer.BYTES + (long) pointsCount * 2 * Double.BYTES) {
+            throw new BufferOverflowException();
+        }
+        int blockSize = Math.min(pointsCount, EXPORT_BLOCK_SIZE);
+        double[] xs = new double[blockSize];
+        double[] ys = new double[blockSize];
+
+        buffer.putInt(pointsCount);
+        for (int from = 0; from < pointsCount; from += blockSize) {
+            int count = Math.min(blockSize, pointsCount - from);
+            function.copyPoints(from, xs, ys, count);
+            for (int i = 0; i < count; i++) {
+                buffer.putDouble(xs[i]).putDouble(ys[i]);
+            }
+        }
+    }
+
+    // Количество точек, копируемых из функции за один раз при выводе
+    private static final int EXPORT_BLOCK_SIZE = 1 << 12;
+
+    // Проверка аргументов TabulatedFunction.copyPoints (используется реализациями)
+    static void checkCopyRange(TabulatedFunction function, int fromIndex, double[] xs, double[] ys, int count) {
+        int pointsCount = function.getPointsCount();
+        if (fromIndex < 0 || count < 0 || fromIndex > pointsCount - count) {
+            throw new FunctionPointIndexOutOfBoundsException(
+                "Диапазон точек [" + fromIndex + ", " + ((long) fromIndex + count) + ") выходит за границы [0, " + pointsCount + ")");
+        }
+        if (xs.length < count || ys.length < count) {
+            throw new IllegalArgumentException("Массивы координат короче количества копируемых точек");
+        }
+    }
+
+    // Пакетные операции addPoints/deletePoints: проверка и подготовка аргументов, общие для всех реализаций
+
+    // Копия добавляемых точек в виде массивов {xs, ys}, упорядоченных по X, O(m log m)
+    // Совпадающие (с точностью 1e-10) абсциссы внутри пакета и NaN недопустимы
+    static double[][] sortedBatch(FunctionPoint[] points) throws InappropriateFunctionPointException {
+        FunctionPoint[] sorted = points.clone();
+        Arrays.sort(sorted, Comparator.comparingDouble(FunctionPoint::getX));
+        double[] xs = new double[sorted.length];
+        double[] ys = new double[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            xs[i] = sorted[i].getX();
+            ys[i] = sorted[i].getY();
+            if (Double.isNaN(xs[i])) {
+                throw new InappropriateFunctionPointException("X координата точки не может быть NaN");
+            }
+            if (i > 0 && xs[i] - xs[i - 1] < 1e-10) {
+                throw new InappropriateFunctionPointException("Точка с X=" + xs[i] + " встречается в пакете дважды");
+            }
+        }
+        return new double[][] {xs, ys};
+    }
+
+    // Слияние count упорядоченных точек функции с упорядоченным пакетом за один проход в новые массивы
+    // длины capacity; при совпадении X с существующей точкой бросается исключение, исходные массивы не меняются
+    static double[][] mergeBatch(double[] xs, double[] ys, int count, double[][] batch, int capacity)
+            throws InappropriateFunctionPointException {
+        double[] batchXs = batch[0];
+        double[] batchYs = batch[1];
+        int m = batchXs.length;
+        double[] mergedXs = new double[capacity];
+        double[] mergedYs = new double[capacity];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < count || j < m) {
+            // Каждая взятая точка сравнивается с ближайшей точкой другой последовательности
+            if (j == m || (i < count && xs[i] < batchXs[j])) {
+                if (j < m && batchXs[j] - xs[i] < 1e-10) {
+                    throw new InappropriateFunctionPointException("Точка с X=" + batchXs[j] + " уже существует");
+                }
+                mergedXs[k] = xs[i];
+                mergedYs[k++] = ys[i++];
+            } else {
+                if (i < count && xs[i] - batchXs[j] < 1e-10) {
+                    throw new InappropriateFunctionPointException("Точка с X=" + batchXs[j] + " уже существует");
+                }
+                mergedXs[k] = batchXs[j];
+                mergedYs[k++] = batchYs[j++];
+            }
+        }
+        return new double[][] {mergedXs, mergedYs};
+    }
+
+    // Поиск и интерполяция по абсциссам xs[0 .. count - 1] и ординатам ys: общий движок реализаций
+    // на массивах double[] (DoubleArrayTabulatedFunction, ConcurrentTabulatedFunction, ImmutableTabulatedFunction)
+
+    // Шаг равномерной сетки (с точностью 1e-10) или NaN, если сетка неравномерна или точек меньше двух
+    static double uniformGridStep(double[] xs, int count) {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        double leftX = xs[0];
+        double step = (xs[count - 1] - leftX) / (count - 1);
+        for (int i = 1; i < count - 1; i++) {
+            if (!(Math.abs(xs[i] - (leftX + i * step)) <= 1e-10)) {
+                return Double.NaN;
+            }
+        }
+        return step;
+    }
+
+    // Индекс i левого конца отрезка [xs[i], xs[i+1]], содержащего x; результат всегда в [0, count - 2]
+    // На равномерной сетке - O(1), иначе бинарный поиск за O(log n); в узле x == xs[i+1] выбирается правый отрезок
+    static int findSegmentIndex(double[] xs, int count, boolean uniform, double step, double x) {
+        int last = count - 2;
+        if (uniform) {
+            int i = (int) ((x - xs[0]) / step);
+            if (i > last) i = last;
+            if (i < 0) i = 0;
+            // Поправка на погрешность округления при делении
+            while (i > 0 && x < xs[i]) i--;
+            while (i < last && x >= xs[i + 1]) i++;
+            return i;
+        }
+
+        int low = 0;
+        int high = last;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (xs[mid] <= x) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    // Линейная интерполяция внутри отрезка с индексом i
+    static double valueInSegment(double[] xs, double[] ys, int i, double x) {
+        double x1 = xs[i];
+        double y1 = ys[i];
+        return y1 + (ys[i + 1] - y1) * (x - x1) / (xs[i + 1] - x1);
+    }
+
+    // Проверяет, что аргументы упорядочены по неубыванию (NaN считается нарушением порядка)
+    static boolean isSorted(double[] args) {
+        for (int k = 1; k < args.length; k++) {
+            if (!(args[k] >= args[k - 1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Пакетное вычисление getFunctionValues: для неубывающего массива аргументов - один проход по отрезкам,
+    // O(n + m), иначе поиск для каждого аргумента; результаты совпадают с поточечным вычислением побитово
+    static void functionValues(double[] xs, double[] ys, int count, boolean uniform, double step,
+                               double[] args, double[] values) {
+        if (values.length < args.length) {
+            throw new IllegalArgumentException("Массив результатов короче массива аргументов");
+        }
+        double left = xs[0];
+        double right = xs[count - 1];
+        if (!isSorted(args)) {
+            for (int k = 0; k < args.length; k++) {
+                double x = args[k];
+                values[k] = x < left || x > right
+                    ? Double.NaN : valueInSegment(xs, ys, findSegmentIndex(xs, count, uniform, step, x), x);
+            }
+            return;
+        }
+
+        int last = count - 2;
+        int i = -1;
+        for (int k = 0; k < args.length; k++) {
+            double x = args[k];
+            if (x < left || x > right) {
+                values[k] = Double.NaN;
+                continue;
+            }
+            if (i < 0) {
+                // Начальный отрезок ищем обычным способом, дальше только двигаемся вправо
+                i = findSegmentIndex(xs, count, uniform, step, x);
+            }
+            while (i < last && x >= xs[i + 1]) {
+                i++;
+            }
+            values[k] = valueInSegment(xs, ys, i, x);
+        }
+    }
+
+    // Накопленные площади трапеций: areas[i] - интеграл от первой точки до i-й, O(n)
+    static double[] cumulativeAreas(double[] xs, double[] ys, int count) {
+        double[] areas = new double[count];
+        for (int k = 1; k < count; k++) {
+            areas[k] = areas[k - 1] + (ys[k - 1] + ys[k]) * (xs[k] - xs[k - 1]) / 2.0;
+        }
+        return areas;
+    }
+
+    // Точный интеграл кусочно-линейной функции по [leftBorder, rightBorder] за O(log n) по накопленным площадям
+    // areas (см. cumulativeAreas); границы уже проверены Functions.checkIntegrationBorders
+    static double integrate(double[] xs, double[] ys, int count, boolean uniform, double step, double[] areas,
+                            double leftBorder, double rightBorder) {
+        int i = findSegmentIndex(xs, count, uniform, step, leftBorder);
+        int j = findSegmentIndex(xs, count, uniform, step, rightBorder);
+        if (i == j) {
+            // Оба конца в одном отрезке - одна трапеция, без вычитания больших сумм
+            return (valueInSegment(xs, ys, i, leftBorder) + valueInSegment(xs, ys, i, rightBorder))
+                * (rightBorder - leftBorder) / 2.0;
+        }
+        return areaTo(xs, ys, areas, j, rightBorder) - areaTo(xs, ys, areas, i, leftBorder);
+    }
+
+    // Площадь под графиком от первой точки до x, где x лежит в отрезке с индексом i
+    private static double areaTo(double[] xs, double[] ys, double[] areas, int i, double x) {
+        return areas[i] + (ys[i] + valueInSegment(xs, ys, i, x)) * (x - xs[i]) / 2.0;
+    }
+
+    // Хэш содержимого (см. TabulatedFunction.contentHash): сумма 64-битных хэшей точек по модулю 2^64
+    // Сумма не зависит от порядка слагаемых, поэтому изменение одной точки обновляет ее за O(1):
+    // хэш старой точки вычитается, хэш новой - прибавляется
+    static long pointHash(double x, double y) {
+        return mix(mix(Double.doubleToLongBits(x)) + Double.doubleToLongBits(y));
+    }
+
+    // Итоговый хэш по сумме хэшей точек
+    static long contentHash(long pointsHash) {
+        return mix(pointsHash);
+    }
+
+    // hashCode реализаций - свертка contentHash, поэтому он одинаков у равных функций разных классов
+    static int hashCode(long contentHash) {
+        return (int) (contentHash ^ (contentHash >>> 32));
+    }
+
+    // Общая часть equals реализаций: совпадение количества точек и всех координат (Double.compare)
+    // С функцией that сравнивается ее снимок - одна согласованная копия, поэтому потокобезопасная that,
+    // изменяемая во время сравнения, не смешивает точки разных версий; function должна быть неизменна во время вызова
+    static boolean contentEquals(TabulatedFunction function, TabulatedFunction that) {
+        int count = function.getPointsCount();
+        if (count != that.getPointsCount()) return false;
+        // Разные хэши содержимого - функции заведомо различны, копировать и сравнивать точки не нужно
+        if (function.contentHash() != that.contentHash()) return false;
+
+        ImmutableTabulatedFunction other = that.snapshot();
+        if (other.getPointsCount() != count) return false;
+        int blockSize = Math.min(count, EXPORT_BLOCK_SIZE);
+        double[] xs = new double[blockSize];
+        double[] ys = new double[blockSize];
+        double[] otherXs = new double[blockSize];
+        double[] otherYs = new double[blockSize];
+        for (int from = 0; from < count; from += blockSize) {
+            int n = Math.min(blockSize, count - from);
+            function.copyPoints(from, xs, ys, n);
+            other.copyPoints(from, otherXs, otherYs, n);
+            for (int i = 0; i < n; i++) {
+                if (Double.compare(xs[i], otherXs[i]) != 0 || Double.compare(ys[i], otherYs[i]) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Финальное перемешивание MurmurHash3 (fmix64): каждый бит входа влияет на все биты результата
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // Проверка диапазона индексов [fromIndex, toIndex) для deletePoints; после удаления должно остаться не менее 2 точек
+    static void checkDeleteRange(int pointsCount, int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > pointsCount || fromIndex > toIndex) {
+            throw new FunctionPointIndexOutOfBoundsException(
+                "Диапазон точек [" + fromIndex + ", " + toIndex + ") выходит за границы [0, " + pointsCount + ")");
+        }
+        if (pointsCount - (toIndex - fromIndex) < 2) {
+            throw new IllegalStateException("Невозможно удалить точки: должно остаться не менее 2 точек");
+        }
+    }
+
     public static TabulatedFunction inputTabulatedFunction(InputStream in) {
+        // Используем фабрику вместо прямого создания
+        return readBinaryPoints(getTabulatedFunctionFactory(), in);
+    }
+
+    private static TabulatedFunction readBinaryPoints(TabulatedFunctionFactory functionFactory, InputStream in) {
         try (DataInputStream dis = new DataInputStream(in)) {
             int pointsCount = dis.readInt();
             FunctionPoint[] points = new FunctionPoint[pointsCount];
@@ -100,219 +498,179 @@ public final class TabulatedFunctions {
                 points[i] = new FunctionPoint(x, y);
             }
             
-            // Используем фабрику вместо прямого создания
-            return createTabulatedFunction(points);
+            return functionFactory.createTabulatedFunction(points);
         } catch (IOException e) {
             throw new RuntimeException("Ошибка при чтении функции из потока", e);
         }
     }
 
-    // Метод readTabulatedFunction
-    public static TabulatedFunction readTabulatedFunction(Reader in) {
-        try {
-            StreamTokenizer tokenizer = new StreamTokenizer(in);
-            tokenizer.parseNumbers();
-            
-            if (tokenizer.nextToken() != StreamTokenizer.TT_NUMBER) {
-                throw new RuntimeException("Ожидалось количество точек");
+    // Сжатый двоичный формат (см. TabulatedFunctionCodec): равномерная сетка хранится границами и количеством
+    // точек, прочие X - разностями второго порядка, Y - исключающим ИЛИ с предыдущим значением; без потерь
+    public static void outputCompressedTabulatedFunction(TabulatedFunction function, OutputStream out) {
+        try (OutputStream stream = out) {
+            TabulatedFunctionCodec.encode(function, stream);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка при выводе функции в поток", e);
+        }
+    }
+
+    // Точки декодируются по мере чтения потока; для равномерной сетки фабрике передаются границы и значения
+    public static TabulatedFunction inputCompressedTabulatedFunction(InputStream in) {
+        return readCompressedPoints(getTabulatedFunctionFactory(), in);
+    }
+
+    public static TabulatedFunction inputCompressedTabulatedFunction(Class<?> functionClass, InputStream in) {
+        return readCompressedPoints(ReflectiveTabulatedFunctionFactory.forClass(functionClass), in);
+    }
+
+    private static TabulatedFunction readCompressedPoints(TabulatedFunctionFactory functionFactory, InputStream in) {
+        try (InputStream stream = in) {
+            TabulatedFunctionCodec.Decoder decoder = new TabulatedFunctionCodec.Decoder(stream);
+            int pointsCount = decoder.getPointsCount();
+
+            if (decoder.isUniformGrid()) {
+                double[] values = new double[pointsCount];
+                for (int i = 0; i < pointsCount; i++) {
+                    decoder.next();
+                    values[i] = decoder.y();
+                }
+                return functionFactory.createTabulatedFunction(decoder.getLeftX(), decoder.getRightX(), values);
             }
-            int pointsCount = (int) tokenizer.nval;
-            
+
             FunctionPoint[] points = new FunctionPoint[pointsCount];
-            
             for (int i = 0; i < pointsCount; i++) {
-                if (tokenizer.nextToken() != StreamTokenizer.TT_NUMBER) {
-                    throw new RuntimeException("Ожидалась координата x");
-                }
-                double x = tokenizer.nval;
-                
-                if (tokenizer.nextToken() != StreamTokenizer.TT_NUMBER) {
-                    throw new RuntimeException("Ожидалась координата y");
-                }
-                double y = tokenizer.nval;
-                
-                points[i] = new FunctionPoint(x, y);
+                decoder.next();
+                points[i] = new FunctionPoint(decoder.x(), decoder.y());
             }
-            
+            return functionFactory.createTabulatedFunction(points);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка при чтении функции из потока", e);
+        }
+    }
+
+    // Запись в файл формата с отображением в память (см. MappedTabulatedFunction)
+    public static void outputMappedTabulatedFunction(TabulatedFunction function, Path path) {
+        try {
+            MappedTabulatedFunction.write(function, path);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка при записи функции в файл " + path, e);
+        }
+    }
+
+    // Открытие файла за O(1): функция вычисляется напрямую из отображенного в память файла
+    public static MappedTabulatedFunction openMappedTabulatedFunction(Path path) {
+        try {
+            return MappedTabulatedFunction.open(path);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка при открытии функции из файла " + path, e);
+        }
+    }
+
+    // Метод readTabulatedFunction
+    public static TabulatedFunction readTabulatedFunction(Reader in) {
+        try {
             // Используем фабрику вместо прямого создания
-            return createTabulatedFunction(points);
+            return createTabulatedFunction(readPoints(in));
         } catch (IOException e) {
             throw new RuntimeException("Ошибка при чтении функции из потока", e);
         }
     }
+    
+    // Разбор текстового формата "n x0 y0 x1 y1 ..."; числа могут быть в экспоненциальной записи,
+    // при ошибке формата сообщение содержит строку и столбец
+    private static FunctionPoint[] readPoints(Reader in) throws IOException {
+        TabulatedFunctionTextParser parser = new TabulatedFunctionTextParser(in);
+        int pointsCount = parser.nextCount("Ожидалось количество точек");
+        
+        FunctionPoint[] points = new FunctionPoint[pointsCount];
+        for (int i = 0; i < pointsCount; i++) {
+            double x = parser.nextDouble("Ожидалась координата x");
+            double y = parser.nextDouble("Ожидалась координата y");
+            points[i] = new FunctionPoint(x, y);
+        }
+        return points;
+    }
     // Метод записи в символьный поток
+    // Числа дописываются в StringBuilder без промежуточных строк (формат Double.toString),
+    // накопленный текст передается в поток кусками через общий массив символов
     public static void writeTabulatedFunction(TabulatedFunction function, Writer out) {
-        try (PrintWriter writer = new PrintWriter(out)) {
-            writer.print(function.getPointsCount() + " ");
-            for (int i = 0; i < function.getPointsCount(); i++) {
-                FunctionPoint point = function.getPoint(i);
-                writer.print(point.getX() + " " + point.getY() + " ");
+        try (Writer writer = out) {
+            int pointsCount = function.getPointsCount();
+            int blockSize = Math.min(pointsCount, EXPORT_BLOCK_SIZE);
+            double[] xs = new double[blockSize];
+            double[] ys = new double[blockSize];
+            StringBuilder text = new StringBuilder(TEXT_CHUNK_SIZE + 64);
+            char[] chunk = new char[TEXT_CHUNK_SIZE + 64];
+
+            text.append(pointsCount).append(' ');
+            for (int from = 0; from < pointsCount; from += blockSize) {
+                int count = Math.min(blockSize, pointsCount - from);
+                function.copyPoints(from, xs, ys, count);
+                for (int i = 0; i < count; i++) {
+                    text.append(xs[i]).append(' ').append(ys[i]).append(' ');
+                    if (text.length() >= TEXT_CHUNK_SIZE) {
+                        flushText(text, chunk, writer);
+                    }
+                }
             }
+            flushText(text, chunk, writer);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка при записи функции в поток", e);
         }
-        // PrintWriter не бросает IOException в методах print/println
     }
 
+    // Размер порции текста, после накопления которой она записывается в поток
+    private static final int TEXT_CHUNK_SIZE = 1 << 13;
+
+    private static void flushText(StringBuilder text, char[] chunk, Writer writer) throws IOException {
+        // Порция не превышает TEXT_CHUNK_SIZE плюс одну пару чисел, поэтому помещается в chunk
+        int length = text.length();
+        text.getChars(0, length, chunk, 0);
+        writer.write(chunk, 0, length);
+        text.setLength(0);
+    }
     
 
+    // Рефлексивные методы создания: фабрика для класса с найденными конструкторами кэшируется
+    // (см. ReflectiveTabulatedFunctionFactory), поэтому поиск конструкторов выполняется только при первом вызове
     public static TabulatedFunction createTabulatedFunction(
             Class<?> functionClass, double leftX, double rightX, int pointsCount) {
-        
-        // Проверяем, что класс реализует TabulatedFunction
-        if (!TabulatedFunction.class.isAssignableFrom(functionClass)) {
-            throw new IllegalArgumentException(
-                "Класс " + functionClass.getName() + " не реализует интерфейс TabulatedFunction");
-        }
-        
-        try {
-            // Ищем конструктор с параметрами (double, double, int)
-            Constructor<?> constructor = functionClass.getConstructor(
-                double.class, double.class, int.class);
-            
-            // Создаем объект через рефлексию
-            return (TabulatedFunction) constructor.newInstance(leftX, rightX, pointsCount);
-            
-        } catch (NoSuchMethodException e) {
-            throw new IllegalArgumentException(
-                "Класс " + functionClass.getName() + " не имеет конструктора (double, double, int)", e);
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
-            throw new IllegalArgumentException(
-                "Ошибка при создании объекта " + functionClass.getName(), e);
-        }
+        return ReflectiveTabulatedFunctionFactory.forClass(functionClass).createTabulatedFunction(leftX, rightX, pointsCount);
     }
     
     public static TabulatedFunction createTabulatedFunction(
             Class<?> functionClass, double leftX, double rightX, double[] values) {
-        
-        if (!TabulatedFunction.class.isAssignableFrom(functionClass)) {
-            throw new IllegalArgumentException(
-                "Класс " + functionClass.getName() + " не реализует интерфейс TabulatedFunction");
-        }
-        
-        try {
-            // Ищем конструктор с параметрами (double, double, double[])
-            Constructor<?> constructor = functionClass.getConstructor(
-                double.class, double.class, double[].class);
-            
-            return (TabulatedFunction) constructor.newInstance(leftX, rightX, values);
-            
-        } catch (NoSuchMethodException e) {
-            throw new IllegalArgumentException(
-                "Класс " + functionClass.getName() + " не имеет конструктора (double, double, double[])", e);
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
-            throw new IllegalArgumentException(
-                "Ошибка при создании объекта " + functionClass.getName(), e);
-        }
+        return ReflectiveTabulatedFunctionFactory.forClass(functionClass).createTabulatedFunction(leftX, rightX, values);
     }
     
-
     public static TabulatedFunction createTabulatedFunction(
             Class<?> functionClass, FunctionPoint[] points) {
-        
-        if (!TabulatedFunction.class.isAssignableFrom(functionClass)) {
-            throw new IllegalArgumentException(
-                "Класс " + functionClass.getName() + " не реализует интерфейс TabulatedFunction");
-        }
-        
-        try {
-            // Ищем конструктор с параметрами (FunctionPoint[])
-            Constructor<?> constructor = functionClass.getConstructor(FunctionPoint[].class);
-            
-            return (TabulatedFunction) constructor.newInstance((Object) points);
-            
-        } catch (NoSuchMethodException e) {
-            throw new IllegalArgumentException(
-                "Класс " + functionClass.getName() + " не имеет конструктора (FunctionPoint[])", e);
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
-            throw new IllegalArgumentException(
-                "Ошибка при создании объекта " + functionClass.getName(), e);
-        }
+        return ReflectiveTabulatedFunctionFactory.forClass(functionClass).createTabulatedFunction(points);
     }
 
     public static TabulatedFunction tabulate(
             Class<?> functionClass, Function function, double leftX, double rightX, int pointsCount) {
-        
-        if (leftX < function.getLeftDomainBorder() || rightX > function.getRightDomainBorder()) {
-            throw new IllegalArgumentException("Границы табулирования выходят за область определения функции");
-        }
-        if (pointsCount < 2) {
-            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
-        }
-
-        // Создаем массив точек
-        FunctionPoint[] points = new FunctionPoint[pointsCount];
-        double step = (rightX - leftX) / (pointsCount - 1);
-        
-        for (int i = 0; i < pointsCount; i++) {
-            double x = leftX + i * step;
-            double y = function.getFunctionValue(x);
-            points[i] = new FunctionPoint(x, y);
-        }
-
-        // Используем рефлексивное создание
-        return createTabulatedFunction(functionClass, points);
+        // Используем рефлексивное создание: по массиву значений или, если у класса нет такого конструктора, по точкам
+        double[] values = tabulateValues(function, leftX, rightX, pointsCount, false);
+        return ReflectiveTabulatedFunctionFactory.forClass(functionClass).createTabulatedFunctionOnGrid(leftX, rightX, values);
+    }
+    
+    public static TabulatedFunction tabulateParallel(
+            Class<?> functionClass, Function function, double leftX, double rightX, int pointsCount) {
+        double[] values = tabulateValues(function, leftX, rightX, pointsCount, true);
+        return ReflectiveTabulatedFunctionFactory.forClass(functionClass).createTabulatedFunctionOnGrid(leftX, rightX, values);
     }
     public static TabulatedFunction inputTabulatedFunction(
         Class<?> functionClass, InputStream in) {
-    
-        if (!TabulatedFunction.class.isAssignableFrom(functionClass)) {
-            throw new IllegalArgumentException(
-                "Класс " + functionClass.getName() + " не реализует интерфейс TabulatedFunction");
-        }
-        
-        try (DataInputStream dis = new DataInputStream(in)) {
-            int pointsCount = dis.readInt();
-            FunctionPoint[] points = new FunctionPoint[pointsCount];
-            
-            for (int i = 0; i < pointsCount; i++) {
-                double x = dis.readDouble();
-                double y = dis.readDouble();
-                points[i] = new FunctionPoint(x, y);
-            }
-            
-            // Используем рефлексивное создание
-            return createTabulatedFunction(functionClass, points);
-            
-        } catch (IOException e) {
-            throw new RuntimeException("Ошибка при чтении функции из потока", e);
-        }
+        // Класс проверяется до чтения потока
+        return readBinaryPoints(ReflectiveTabulatedFunctionFactory.forClass(functionClass), in);
     }
 
     public static TabulatedFunction readTabulatedFunction(
             Class<?> functionClass, Reader in) {
-        
-        if (!TabulatedFunction.class.isAssignableFrom(functionClass)) {
-            throw new IllegalArgumentException(
-                "Класс " + functionClass.getName() + " не реализует интерфейс TabulatedFunction");
-        }
-        
+        TabulatedFunctionFactory classFactory = ReflectiveTabulatedFunctionFactory.forClass(functionClass);
         try {
-            StreamTokenizer tokenizer = new StreamTokenizer(in);
-            tokenizer.parseNumbers();
-            
-            if (tokenizer.nextToken() != StreamTokenizer.TT_NUMBER) {
-                throw new RuntimeException("Ожидалось количество точек");
-            }
-            int pointsCount = (int) tokenizer.nval;
-            
-            FunctionPoint[] points = new FunctionPoint[pointsCount];
-            
-            for (int i = 0; i < pointsCount; i++) {
-                if (tokenizer.nextToken() != StreamTokenizer.TT_NUMBER) {
-                    throw new RuntimeException("Ожидалась координата x");
-                }
-                double x = tokenizer.nval;
-                
-                if (tokenizer.nextToken() != StreamTokenizer.TT_NUMBER) {
-                    throw new RuntimeException("Ожидалась координата y");
-                }
-                double y = tokenizer.nval;
-                
-                points[i] = new FunctionPoint(x, y);
-            }
-            
-            // Используем рефлексивное создание
-            return createTabulatedFunction(functionClass, points);
-            
+            return classFactory.createTabulatedFunction(readPoints(in));
         } catch (IOException e) {
             throw new RuntimeException("Ошибка при чтении функции из потока", e);
         }
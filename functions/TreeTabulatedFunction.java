@@ -0,0 +1,652 @@
+package functions;
+import java.util.NoSuchElementException;
+import java.util.Iterator;
+import java.io.*;
+
+// Табулированная функция на основе АВЛ-дерева, упорядоченного по X
+// Каждый узел хранит размер своего поддерева, поэтому доступ по индексу, добавление,
+// удаление и поиск отрезка для вычисления значения выполняются за O(log n)
+// Дополнительно узлы связаны в двусвязный список по возрастанию X для обхода за O(1) на шаг
+// Для integrate узел хранит площадь трапеции до следующей точки и сумму этих площадей по поддереву,
+// поэтому интеграл по любому отрезку вычисляется за O(log n), а изменения обновляют суммы за O(log n)
+public class TreeTabulatedFunction implements TabulatedFunction, Serializable, Externalizable {
+    private static final long serialVersionUID = 1L;
+
+    private static class TreeNode {
+        private double x;
+        private double y;
+        private TreeNode left, right; // Потомки в дереве
+        private TreeNode prev, next;  // Соседи по порядку X
+        private int height = 1;
+        private int size = 1;
+        // Площадь трапеции между этой точкой и следующей (0 для последней) и сумма по поддереву
+        private double segmentArea;
+        private double area;
+
+        private TreeNode(double x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    private TreeNode root;
+    private TreeNode first, last;
+    // Сумма хэшей точек (см. TabulatedFunctions.pointHash), обновляется при каждом изменении
+    private long pointsHash;
+
+    // Конструктор по умолчанию для Externalizable
+    public TreeTabulatedFunction() {
+    }
+
+    public TreeTabulatedFunction(double leftX, double rightX, int pointsCount) {
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
+        }
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        double[] xs = new double[pointsCount];
+        double step = (rightX - leftX) / (pointsCount - 1);
+        for (int i = 0; i < pointsCount; i++) {
+            xs[i] = leftX + i * step;
+        }
+        build(xs, new double[pointsCount], pointsCount);
+    }
+
+    public TreeTabulatedFunction(double leftX, double rightX, double[] values) {
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
+        }
+        if (values.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        double[] xs = new double[values.length];
+        double step = (rightX - leftX) / (values.length - 1);
+        for (int i = 0; i < values.length; i++) {
+            xs[i] = leftX + i * step;
+        }
+        build(xs, values, values.length);
+    }
+
+    public TreeTabulatedFunction(FunctionPoint[] points) {
+        if (points.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        for (int i = 1; i < points.length; i++) {
+            if (points[i].getX() - points[i-1].getX() <= 1e-10) {
+                throw new IllegalArgumentException("Точки не упорядочены по возрастанию x");
+            }
+        }
+
+        double[] xs = new double[points.length];
+        double[] ys = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            xs[i] = points[i].getX();
+            ys[i] = points[i].getY();
+        }
+        build(xs, ys, points.length);
+    }
+
+    @Override
+    public Iterator<FunctionPoint> iterator() {
+        return new Iterator<FunctionPoint>() {
+            private TreeNode currentNode = first;
+
+            @Override
+            public boolean hasNext() {
+                return currentNode != null;
+            }
+
+            @Override
+            public FunctionPoint next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("Нет следующего элемента");
+                }
+                FunctionPoint point = new FunctionPoint(currentNode.x, currentNode.y);
+                currentNode = currentNode.next;
+                return point;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Удаление не поддерживается");
+            }
+        };
+    }
+
+    public static class TreeTabulatedFunctionFactory implements TabulatedFunctionFactory {
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount) {
+            return new TreeTabulatedFunction(leftX, rightX, pointsCount);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, double[] values) {
+            return new TreeTabulatedFunction(leftX, rightX, values);
+        }
+
+        @Override
+        public TabulatedFunction createTabulatedFunction(FunctionPoint[] points) {
+            return new TreeTabulatedFunction(points);
+        }
+    }
+
+    public double getLeftDomainBorder() {
+        if (first == null) throw new IllegalStateException("Функция не содержит точек");
+        return first.x;
+    }
+
+    public double getRightDomainBorder() {
+        if (last == null) throw new IllegalStateException("Функция не содержит точек");
+        return last.x;
+    }
+
+    public double getFunctionValue(double x) {
+        if (x < getLeftDomainBorder() || x > getRightDomainBorder()) {
+            return Double.NaN;
+        }
+
+        TreeNode left = segmentStart(floor(x));
+        TreeNode right = left.next;
+        return left.y + (right.y - left.y) * (x - left.x) / (right.x - left.x);
+    }
+
+    // Точный интеграл кусочно-линейной функции за O(log n): разность площадей от первой точки до границ,
+    // каждая из которых - спуск по дереву с суммами площадей поддеревьев
+    @Override
+    public double integrate(double leftBorder, double rightBorder) {
+        Functions.checkIntegrationBorders(this, leftBorder, rightBorder);
+
+        TreeNode from = segmentStart(floor(leftBorder));
+        TreeNode to = segmentStart(floor(rightBorder));
+        if (from == to) {
+            // Оба конца в одном отрезке - одна трапеция, без вычитания больших сумм
+            return (valueInSegment(from, leftBorder) + valueInSegment(from, rightBorder)) * (rightBorder - leftBorder) / 2.0;
+        }
+        return areaTo(to, rightBorder) - areaTo(from, leftBorder);
+    }
+
+    // Площадь под графиком от первой точки до x, где x лежит в отрезке, начинающемся в узле start
+    private double areaTo(TreeNode start, double x) {
+        double sum = 0.0;
+        TreeNode node = root;
+        while (node != null) {
+            if (node.x < start.x) {
+                sum += area(node.left) + node.segmentArea;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return sum + (start.y + valueInSegment(start, x)) * (x - start.x) / 2.0;
+    }
+
+    private static double valueInSegment(TreeNode left, double x) {
+        TreeNode right = left.next;
+        return left.y + (right.y - left.y) * (x - left.x) / (right.x - left.x);
+    }
+
+    // Пакетное вычисление: для возрастающего массива аргументов - один проход по узлам, O(log n + n + m)
+    @Override
+    public void getFunctionValues(double[] xs, double[] values) {
+        if (values.length < xs.length) {
+            throw new IllegalArgumentException("Массив результатов короче массива аргументов");
+        }
+        for (int k = 1; k < xs.length; k++) {
+            if (!(xs[k] >= xs[k - 1])) {
+                for (int i = 0; i < xs.length; i++) {
+                    values[i] = getFunctionValue(xs[i]);
+                }
+                return;
+            }
+        }
+
+        double leftBorder = getLeftDomainBorder();
+        double rightBorder = getRightDomainBorder();
+        TreeNode left = null;
+        for (int k = 0; k < xs.length; k++) {
+            double x = xs[k];
+            if (x < leftBorder || x > rightBorder) {
+                values[k] = Double.NaN;
+                continue;
+            }
+            if (left == null) {
+                left = segmentStart(floor(x));
+            }
+            while (left.next != last && x >= left.next.x) {
+                left = left.next;
+            }
+            TreeNode right = left.next;
+            values[k] = left.y + (right.y - left.y) * (x - left.x) / (right.x - left.x);
+        }
+    }
+
+    public int getPointsCount() {
+        return size(root);
+    }
+
+    public FunctionPoint getPoint(int index) {
+        TreeNode node = getNodeByIndex(index);
+        return new FunctionPoint(node.x, node.y);
+    }
+
+    public void setPoint(int index, FunctionPoint point) throws InappropriateFunctionPointException {
+        TreeNode node = getNodeByIndex(index);
+        checkOrder(node, point.getX());
+        pointsHash += TabulatedFunctions.pointHash(point.getX(), point.getY()) - pointHash(node);
+        node.x = point.getX();
+        node.y = point.getY();
+        updateAreas(node);
+    }
+
+    public double getPointX(int index) {
+        return getNodeByIndex(index).x;
+    }
+
+    // Новая абсцисса лежит строго между соседями, поэтому порядок в дереве не нарушается
+    public void setPointX(int index, double x) throws InappropriateFunctionPointException {
+        TreeNode node = getNodeByIndex(index);
+        checkOrder(node, x);
+        pointsHash += TabulatedFunctions.pointHash(x, node.y) - pointHash(node);
+        node.x = x;
+        updateAreas(node);
+    }
+
+    public double getPointY(int index) {
+        return getNodeByIndex(index).y;
+    }
+
+    // Проход по ссылкам next от первой точки, без спусков по дереву
+    public void forEachPoint(FunctionPointConsumer action) {
+        for (TreeNode node = first; node != null; node = node.next) {
+            action.accept(node.x, node.y);
+        }
+    }
+
+    // Один спуск по дереву к первой точке, дальше проход по ссылкам next
+    public void copyPoints(int fromIndex, double[] xs, double[] ys, int count) {
+        TabulatedFunctions.checkCopyRange(this, fromIndex, xs, ys, count);
+        if (count == 0) {
+            return;
+        }
+        TreeNode node = getNodeByIndex(fromIndex);
+        for (int i = 0; i < count; i++, node = node.next) {
+            xs[i] = node.x;
+            ys[i] = node.y;
+        }
+    }
+
+    public void setPointY(int index, double y) {
+        TreeNode node = getNodeByIndex(index);
+        pointsHash += TabulatedFunctions.pointHash(node.x, y) - pointHash(node);
+        node.y = y;
+        updateAreas(node);
+    }
+
+    public void deletePoint(int index) {
+        TreeNode node = getNodeByIndex(index);
+
+        if (size(root) < 3) {
+            throw new IllegalStateException("Невозможно удалить точку: количество точек должно быть не менее 3");
+        }
+
+        root = removeAt(root, index);
+        pointsHash -= pointHash(node);
+
+        if (node.prev != null) node.prev.next = node.next; else first = node.next;
+        if (node.next != null) node.next.prev = node.prev; else last = node.prev;
+        // Трапеция предыдущей точки теперь идет до следующей за удаленной
+        if (node.prev != null) {
+            updateSegment(node.prev);
+            refresh(root, node.prev.x);
+        }
+    }
+
+    public void addPoint(FunctionPoint point) throws InappropriateFunctionPointException {
+        double x = point.getX();
+
+        // Соседи новой точки: ближайшая слева (или равная) и следующая за ней
+        TreeNode prev = floor(x);
+        TreeNode next = prev == null ? first : prev.next;
+        if ((prev != null && Math.abs(prev.x - x) < 1e-10) || (next != null && Math.abs(next.x - x) < 1e-10)) {
+            throw new InappropriateFunctionPointException("Точка с X=" + x + " уже существует");
+        }
+
+        TreeNode node = new TreeNode(x, point.getY());
+        root = insert(root, node);
+        pointsHash += pointHash(node);
+
+        node.prev = prev;
+        node.next = next;
+        if (prev != null) prev.next = node; else first = node;
+        if (next != null) next.prev = node; else last = node;
+        updateAreas(node);
+    }
+
+    // Пакетное добавление: слияние упорядоченного пакета с точками по ссылкам next и построение
+    // сбалансированного дерева заново, O(n + m log m) вместо m вставок по O(log n) с поворотами
+    public void addPoints(FunctionPoint[] points) throws InappropriateFunctionPointException {
+        double[][] batch = TabulatedFunctions.sortedBatch(points);
+        if (batch[0].length == 0) {
+            return;
+        }
+        int count = size(root);
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        copyPoints(0, xs, ys, count);
+        double[][] merged = TabulatedFunctions.mergeBatch(xs, ys, count, batch, count + batch[0].length);
+        build(merged[0], merged[1], merged[0].length);
+    }
+
+    // Немного точек удаляется по одной за O(log n) каждая, большой диапазон - перестроением дерева за O(n)
+    public void deletePoints(int fromIndex, int toIndex) {
+        int count = size(root);
+        TabulatedFunctions.checkDeleteRange(count, fromIndex, toIndex);
+        int removed = toIndex - fromIndex;
+        if ((long) removed * 32 < count) {
+            for (int i = 0; i < removed; i++) {
+                deletePoint(fromIndex);
+            }
+            return;
+        }
+        double[] xs = new double[count - removed];
+        double[] ys = new double[count - removed];
+        copyPoints(0, xs, ys, fromIndex);
+        int k = fromIndex;
+        for (TreeNode node = getNodeByIndex(toIndex - 1).next; node != null; node = node.next, k++) {
+            xs[k] = node.x;
+            ys[k] = node.y;
+        }
+        build(xs, ys, xs.length);
+    }
+
+    public void printTabulatedFunction() {
+        for (TreeNode node = first; node != null; node = node.next) {
+            System.out.println("x = " + node.x + ", y = " + node.y);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (TreeNode node = first; node != null; node = node.next) {
+            sb.append("(").append(node.x).append("; ").append(node.y).append(")");
+            if (node.next != null) {
+                sb.append(", ");
+            }
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TabulatedFunction)) return false;
+        return TabulatedFunctions.contentEquals(this, (TabulatedFunction) o);
+    }
+
+    @Override
+    public long contentHash() {
+        return TabulatedFunctions.contentHash(pointsHash);
+    }
+
+    @Override
+    public int hashCode() {
+        return TabulatedFunctions.hashCode(contentHash());
+    }
+
+    private static long pointHash(TreeNode node) {
+        return TabulatedFunctions.pointHash(node.x, node.y);
+    }
+
+    @Override
+    public Object clone() {
+        int count = getPointsCount();
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        int i = 0;
+        for (TreeNode node = first; node != null; node = node.next) {
+            xs[i] = node.x;
+            ys[i] = node.y;
+            i++;
+        }
+        TreeTabulatedFunction cloned = new TreeTabulatedFunction();
+        cloned.build(xs, ys, count);
+        return cloned;
+    }
+
+    // Методы Externalizable - формат совпадает с ArrayTabulatedFunction
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt(getPointsCount());
+        for (TreeNode node = first; node != null; node = node.next) {
+            out.writeDouble(node.x);
+            out.writeDouble(node.y);
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        int count = in.readInt();
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = in.readDouble();
+            ys[i] = in.readDouble();
+        }
+        build(xs, ys, count);
+    }
+
+    // Строит идеально сбалансированное дерево по упорядоченным точкам за O(n)
+    private void build(double[] xs, double[] ys, int count) {
+        TreeNode[] nodes = new TreeNode[count];
+        pointsHash = 0;
+        for (int i = 0; i < count; i++) {
+            nodes[i] = new TreeNode(xs[i], ys[i]);
+            pointsHash += pointHash(nodes[i]);
+            if (i > 0) {
+                nodes[i].prev = nodes[i - 1];
+                nodes[i - 1].next = nodes[i];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            updateSegment(nodes[i]);
+        }
+        root = buildBalanced(nodes, 0, count - 1);
+        first = count > 0 ? nodes[0] : null;
+        last = count > 0 ? nodes[count - 1] : null;
+    }
+
+    private static TreeNode buildBalanced(TreeNode[] nodes, int from, int to) {
+        if (from > to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        TreeNode node = nodes[mid];
+        node.left = buildBalanced(nodes, from, mid - 1);
+        node.right = buildBalanced(nodes, mid + 1, to);
+        update(node);
+        return node;
+    }
+
+    // Возвращает узел по индексу (порядковой статистике) за O(log n)
+    private TreeNode getNodeByIndex(int index) {
+        int count = size(root);
+        if (index < 0 || index >= count) {
+            throw new FunctionPointIndexOutOfBoundsException("Индекс " + index + " выходит за границы [0, " + (count-1) + "]");
+        }
+        TreeNode node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private void checkOrder(TreeNode node, double x) throws InappropriateFunctionPointException {
+        if (node.prev != null && x <= node.prev.x + 1e-10) {
+            throw new InappropriateFunctionPointException("X координата точки нарушает упорядоченность с предыдущей точкой");
+        }
+        if (node.next != null && x >= node.next.x - 1e-10) {
+            throw new InappropriateFunctionPointException("X координата точки нарушает упорядоченность со следующей точкой");
+        }
+    }
+
+    // Последний узел с X <= x или null, если таких нет
+    private TreeNode floor(double x) {
+        TreeNode result = null;
+        TreeNode node = root;
+        while (node != null) {
+            if (node.x <= x) {
+                result = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return result;
+    }
+
+    // Левый конец отрезка интерполяции для узла floor(x): для последней точки берется предыдущий отрезок
+    private TreeNode segmentStart(TreeNode node) {
+        if (node == null) {
+            return first;
+        }
+        return node == last ? node.prev : node;
+    }
+
+    // Площади трапеций зависят от точки и ее соседей: после изменения узла пересчитываются трапеции
+    // узла и предыдущей точки и суммы на путях от корня к ним, O(log n)
+    private void updateAreas(TreeNode node) {
+        updateSegment(node);
+        refresh(root, node.x);
+        if (node.prev != null) {
+            updateSegment(node.prev);
+            refresh(root, node.prev.x);
+        }
+    }
+
+    private static void updateSegment(TreeNode node) {
+        TreeNode next = node.next;
+        node.segmentArea = next == null ? 0.0 : (node.y + next.y) * (next.x - node.x) / 2.0;
+    }
+
+    // Пересчитывает суммы поддеревьев на пути от node к узлу с абсциссой x
+    private static void refresh(TreeNode node, double x) {
+        if (node == null) {
+            return;
+        }
+        if (x < node.x) {
+            refresh(node.left, x);
+        } else if (x > node.x) {
+            refresh(node.right, x);
+        }
+        update(node);
+    }
+
+    // Балансировка АВЛ-дерева
+    private static int height(TreeNode node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(TreeNode node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static double area(TreeNode node) {
+        return node == null ? 0.0 : node.area;
+    }
+
+    private static void update(TreeNode node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.size = 1 + size(node.left) + size(node.right);
+        node.area = node.segmentArea + area(node.left) + area(node.right);
+    }
+
+    private static TreeNode rotateRight(TreeNode node) {
+        TreeNode left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static TreeNode rotateLeft(TreeNode node) {
+        TreeNode right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static TreeNode balance(TreeNode node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static TreeNode insert(TreeNode node, TreeNode newNode) {
+        if (node == null) {
+            return newNode;
+        }
+        if (newNode.x < node.x) {
+            node.left = insert(node.left, newNode);
+        } else {
+            node.right = insert(node.right, newNode);
+        }
+        return balance(node);
+    }
+
+    // Удаляет узел с заданным индексом из поддерева; узлы не копируются, а перевешиваются,
+    // чтобы ссылки prev/next оставались корректными
+    private static TreeNode removeAt(TreeNode node, int index) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            node.left = removeAt(node.left, index);
+        } else if (index > leftSize) {
+            node.right = removeAt(node.right, index - leftSize - 1);
+        } else {
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            TreeNode successor = node.next;
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private static TreeNode removeMin(TreeNode node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+}
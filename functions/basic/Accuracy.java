@@ -0,0 +1,30 @@
+package functions.basic;
+
+// Уровень точности быстрых вариантов элементарных функций (FastSin, FastCos, FastTan, FastExp, FastLog)
+// Уровни отличаются степенью приближающего многочлена: чем ниже точность, тем короче цепочка умножений
+// Граница относительной погрешности |f(x) - F(x)| / |F(x)| (F - точное значение) действует:
+// - для sin, cos и tan - при всех x (в том числе около корней и полюсов), для |x| >= 2^16 варианты
+//   вычисляются методами Math;
+// - для exp - при всех x, результат которых - нормализованное число;
+// - для log - при всех x > 0 и любом основании.
+// Границы проверены перебором: точки каждого табличного отрезка на всем рабочем диапазоне
+// и случайные аргументы, сравнение со StrictMath (см. bench/functions/bench/FastFunctionAccuracy.java)
+public enum Accuracy {
+    // Многочлены степени 2-3; относительная погрешность не более 5e-7
+    FAST(5e-7),
+    // Многочлены степени 3-5; относительная погрешность не более 1e-10
+    BALANCED(1e-10),
+    // Многочлены степени 5-7; погрешность - несколько единиц последнего разряда, не более 2e-15
+    PRECISE(2e-15);
+
+    private final double relativeError;
+
+    Accuracy(double relativeError) {
+        this.relativeError = relativeError;
+    }
+
+    // Документированная граница относительной погрешности
+    public double getRelativeError() {
+        return relativeError;
+    }
+}
@@ -14,4 +14,14 @@ public class Exp implements Function {
     public double getFunctionValue(double x) {
         return Math.exp(x);
     }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] values) {
+        if (values.length < xs.length) {
+            throw new IllegalArgumentException("Массив результатов короче массива аргументов");
+        }
+        for (int i = 0; i < xs.length; i++) {
+            values[i] = Math.exp(xs[i]);
+        }
+    }
 }
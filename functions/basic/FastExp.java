@@ -0,0 +1,43 @@
+package functions.basic;
+
+import functions.Function;
+
+// Быстрое приближение exp(x) с заданной точностью (см. Accuracy и FastMath)
+public class FastExp implements Function {
+    private final Accuracy accuracy;
+    private final double[] coefficients;
+
+    public FastExp(Accuracy accuracy) {
+        if (accuracy == null) {
+            throw new IllegalArgumentException("Уровень точности не может быть null");
+        }
+        this.accuracy = accuracy;
+        this.coefficients = FastMath.EXP[accuracy.ordinal()];
+    }
+
+    public Accuracy getAccuracy() {
+        return accuracy;
+    }
+
+    public double getLeftDomainBorder() {
+        return Double.NEGATIVE_INFINITY;
+    }
+
+    public double getRightDomainBorder() {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    public double getFunctionValue(double x) {
+        return FastMath.exp(x, coefficients);
+    }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] values) {
+        if (values.length < xs.length) {
+            throw new IllegalArgumentException("Массив результатов короче массива аргументов");
+        }
+        for (int i = 0; i < xs.length; i++) {
+            values[i] = FastMath.exp(xs[i], coefficients);
+        }
+    }
+}
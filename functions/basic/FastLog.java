@@ -0,0 +1,59 @@
+package functions.basic;
+
+import functions.Function;
+
+// Быстрое приближение логарифма по основанию base с заданной точностью (см. Accuracy и FastMath)
+// Натуральный логарифм умножается на заранее вычисленное 1 / ln(base)
+public class FastLog implements Function {
+    private final double base;
+    private final Accuracy accuracy;
+    private final double[] coefficients;
+    private final double inverseLogBase;
+
+    public FastLog(double base, Accuracy accuracy) {
+        if (base <= 0 || base == 1) {
+            throw new IllegalArgumentException("Основание логарифма должно быть >1 && !=1");
+        }
+        if (accuracy == null) {
+            throw new IllegalArgumentException("Уровень точности не может быть null");
+        }
+        this.base = base;
+        this.accuracy = accuracy;
+        this.coefficients = FastMath.LOG[accuracy.ordinal()];
+        this.inverseLogBase = 1.0 / Math.log(base);
+    }
+
+    public double getBase() {
+        return base;
+    }
+
+    public Accuracy getAccuracy() {
+        return accuracy;
+    }
+
+    public double getLeftDomainBorder() {
+        return 0;
+    }
+
+    public double getRightDomainBorder() {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    public double getFunctionValue(double x) {
+        if (x <= 0) {
+            return Double.NaN;
+        }
+        return FastMath.log(x, coefficients) * inverseLogBase;
+    }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] values) {
+        if (values.length < xs.length) {
+            throw new IllegalArgumentException("Массив результатов короче массива аргументов");
+        }
+        for (int i = 0; i < xs.length; i++) {
+            double x = xs[i];
+            values[i] = x <= 0 ? Double.NaN : FastMath.log(x, coefficients) * inverseLogBase;
+        }
+    }
+}
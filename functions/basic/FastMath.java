@@ -0,0 +1,231 @@
+package functions.basic;
+
+// Быстрые приближения sin, cos, tan, exp и ln для FastSin, FastCos, FastTan, FastExp и FastLog
+// Схема одна для всех функций: аргумент сводится по таблице к короткому отрезку около узла, значение в узле
+// берется из таблицы, а на отрезке функция приближается минимаксным многочленом (коэффициенты найдены
+// алгоритмом Ремеза для ядер ниже и округлены до double). Степень многочлена задает точность (см. Accuracy)
+// Аргументы вне рабочего диапазона (очень большие или очень малые по модулю, бесконечности, NaN)
+// вычисляются методами Math, поэтому на них результат не хуже точного варианта
+final class FastMath {
+    // sin, cos, tan: x = k * STEP + r, |r| <= STEP / 2, STEP = pi / 32
+    // STEP = STEP_1 + STEP_2 + STEP_3; у STEP_1 и STEP_2 по 32 значащих бита, поэтому при |k| < 2^20
+    // произведения k * STEP_1 и k * STEP_2 точные (схема Коди - Уэйта)
+    private static final int TRIG_TABLE_SIZE = 64;
+    private static final double INVERSE_STEP = 0x1.45f306dc9c883p3; // 32 / pi
+    private static final double STEP_1 = 0x1.921fb54400000p-4;
+    private static final double STEP_2 = 0x1.0b4611a600000p-38;
+    private static final double STEP_3 = 0x1.3198a2e037073p-73;
+    // При |x| < 2^16 номер узла |k| < 2^20; меньшие 2^-26 аргументы Math вычисляет без сведения
+    private static final double TRIG_LIMIT = 0x1p16;
+    private static final double TRIG_TINY = 0x1p-26;
+
+    // sin(j * STEP) и cos(j * STEP), j = k mod 64; в нулях и единицах синуса и косинуса - точные 0 и 1,
+    // поэтому вблизи корней результат сохраняет относительную точность
+    private static final double[] SIN_TABLE = new double[TRIG_TABLE_SIZE];
+    private static final double[] COS_TABLE = new double[TRIG_TABLE_SIZE];
+
+    // exp: x = k * ln2 / 64 + r, |r| <= ln2 / 128, exp(x) = 2^(k / 64) * exp(r)
+    // LN2_64_HI содержит 36 значащих битов - при |k| < 2^17 произведение k * LN2_64_HI точное
+    private static final int EXP_TABLE_SIZE = 64;
+    private static final double INVERSE_LN2_64 = 0x1.71547652b82fep6; // 64 / ln2
+    private static final double LN2_64_HI = 0x1.62e42fefa0000p-7;
+    private static final double LN2_64_LO = 0x1.cf79abc9e3b3ap-46;
+    // При |x| <= 708 результат - нормализованное число, и множитель 2^(k / 64) собирается из битов
+    private static final double EXP_LIMIT = 708.0;
+    // 2^(j / 64), j = 0..63
+    private static final double[] EXP_TABLE = new double[EXP_TABLE_SIZE];
+
+    // ln: x = 2^e * m, m из [1, 2) сводится к ближайшему узлу c = 1 + i / 128, r = (m - c) / c, |r| <= 1/256
+    // ln(x) = e * ln2 + ln(c) + ln(1 + r); при c >= 1.5 узел делится на 2, а порядок увеличивается на 1,
+    // чтобы около x = 1 (и слева, и справа) ln(c) = 0 и результат не терял относительную точность
+    private static final int LOG_TABLE_SIZE = 129;
+    private static final long MANTISSA_MASK = 0x000FFFFFFFFFFFFFL;
+    private static final long ONE_BITS = 0x3FF0000000000000L;
+    // LN2_HI содержит 42 значащих бита - произведение на порядок точное
+    private static final double LN2_HI = 0x1.62e42fefa3800p-1;
+    private static final double LN2_LO = 0x1.ef35793c76730p-45;
+    // Узел c_i, 1 / c_i и ln(c_i) либо ln(c_i / 2) для i >= 64
+    private static final double[] LOG_NODE = new double[LOG_TABLE_SIZE];
+    private static final double[] LOG_INVERSE_NODE = new double[LOG_TABLE_SIZE];
+    private static final double[] LOG_TABLE = new double[LOG_TABLE_SIZE];
+
+    // Коэффициенты многочленов по уровням точности, индекс - Accuracy.ordinal()
+    // sin(r) = r + r^3 * P(r^2), приближается (sin(r) - r) / r^3
+    static final double[][] SIN = {
+        {-0.16665662635799086},
+        {-0.16666666652264622, 0.008332855211966191},
+        {-0.16666666666666546, 0.008333333324331933, -0.00019840273748117533},
+    };
+    // cos(r) = 1 + r^2 * Q(r^2), приближается (cos(r) - 1) / r^2
+    static final double[][] COS = {
+        {-0.49994979960876523},
+        {-0.4999999989918714, 0.04166331984910142},
+        {-0.4999999999999892, 0.04166666658565472, -0.0013887992410325368},
+    };
+    // exp(r) = 1 + r + r^2 * P(r), приближается (exp(r) - 1 - r) / r^2
+    static final double[][] EXP = {
+        {0.500001222100777},
+        {0.5000006110502103, 0.1666669110867538},
+        {0.4999999999998506, 0.16666666666658134, 0.04166670740334075, 0.008333342061741463},
+    };
+    // ln(1 + r) = r + r^2 * P(r), приближается (ln(1 + r) - r) / r^2
+    static final double[][] LOG = {
+        {-0.5000019077448811, 0.3333363857348031},
+        {-0.49999999999029465, 0.33333562263043975, -0.25000317959013235},
+        {-0.5, 0.3333333333229348, -0.24999999997634398, 0.20000272536254327, -0.166670005201426},
+    };
+
+    static {
+        // Первая четверть периода вычисляется с поправкой на ошибку округления аргумента j * STEP_1,
+        // остальные заполняются по симметрии, чтобы значения в узлах 0, pi/2, pi, 3pi/2 были точными
+        double[] quarter = new double[TRIG_TABLE_SIZE / 4 + 1];
+        for (int j = 0; j <= TRIG_TABLE_SIZE / 4; j++) {
+            double a = j * (Math.PI / 32);
+            double error = Math.fma(j, Math.PI / 32, -a) + j * (STEP_1 - Math.PI / 32 + STEP_2 + STEP_3);
+            quarter[j] = StrictMath.sin(a) + error * StrictMath.cos(a);
+        }
+        quarter[0] = 0.0;
+        quarter[TRIG_TABLE_SIZE / 4] = 1.0;
+        for (int j = 0; j < TRIG_TABLE_SIZE; j++) {
+            int q = j / (TRIG_TABLE_SIZE / 4);
+            int i = j % (TRIG_TABLE_SIZE / 4);
+            double sin = quarter[i];
+            double cos = quarter[TRIG_TABLE_SIZE / 4 - i];
+            switch (q) {
+                case 0:
+                    SIN_TABLE[j] = sin;
+                    COS_TABLE[j] = cos;
+                    break;
+                case 1:
+                    SIN_TABLE[j] = cos;
+                    COS_TABLE[j] = -sin;
+                    break;
+                case 2:
+                    SIN_TABLE[j] = -sin;
+                    COS_TABLE[j] = -cos;
+                    break;
+                default:
+                    SIN_TABLE[j] = -cos;
+                    COS_TABLE[j] = sin;
+                    break;
+            }
+        }
+
+        for (int j = 0; j < EXP_TABLE_SIZE; j++) {
+            EXP_TABLE[j] = StrictMath.pow(2.0, j / (double) EXP_TABLE_SIZE);
+        }
+
+        for (int i = 0; i < LOG_TABLE_SIZE; i++) {
+            double node = 1.0 + i / 128.0;
+            LOG_NODE[i] = node;
+            LOG_INVERSE_NODE[i] = 1.0 / node;
+            LOG_TABLE[i] = i < 64 ? StrictMath.log(node) : StrictMath.log(node / 2);
+        }
+    }
+
+    // Приватный конструктор чтобы запретить создание экземпляров
+    private FastMath() {
+        throw new AssertionError("Нельзя создать экземпляр класса FastMath");
+    }
+
+    // Схема Горнера: c[0] + c[1] * t + ... + c[n] * t^n
+    // Длина массива на каждом месте вызова постоянна, поэтому переход по ней всегда предсказан,
+    // а развернутые ветви не содержат цикла и проверок границ массива
+    private static double polynomial(double[] c, double t) {
+        switch (c.length) {
+            case 1:
+                return c[0];
+            case 2:
+                return c[1] * t + c[0];
+            case 3:
+                return (c[2] * t + c[1]) * t + c[0];
+            case 4:
+                return ((c[3] * t + c[2]) * t + c[1]) * t + c[0];
+            case 5:
+                return (((c[4] * t + c[3]) * t + c[2]) * t + c[1]) * t + c[0];
+            default:
+                double p = c[c.length - 1];
+                for (int i = c.length - 2; i >= 0; i--) {
+                    p = p * t + c[i];
+                }
+                return p;
+        }
+    }
+
+    static double sin(double x, double[] sinCoefficients, double[] cosCoefficients) {
+        double abs = Math.abs(x);
+        if (!(abs >= TRIG_TINY && abs < TRIG_LIMIT)) {
+            return Math.sin(x);
+        }
+        double k = Math.rint(x * INVERSE_STEP);
+        double r = x - k * STEP_1 - k * STEP_2 - k * STEP_3;
+        double z = r * r;
+        double sinR = r + r * z * polynomial(sinCoefficients, z);
+        double cosRMinusOne = z * polynomial(cosCoefficients, z);
+        int j = (int) k & (TRIG_TABLE_SIZE - 1);
+        // sin(a) * cos(r) + cos(a) * sin(r), единица из cos(r) прибавляется последней
+        return SIN_TABLE[j] + (SIN_TABLE[j] * cosRMinusOne + COS_TABLE[j] * sinR);
+    }
+
+    static double cos(double x, double[] sinCoefficients, double[] cosCoefficients) {
+        double abs = Math.abs(x);
+        if (!(abs >= TRIG_TINY && abs < TRIG_LIMIT)) {
+            return Math.cos(x);
+        }
+        double k = Math.rint(x * INVERSE_STEP);
+        double r = x - k * STEP_1 - k * STEP_2 - k * STEP_3;
+        double z = r * r;
+        double sinR = r + r * z * polynomial(sinCoefficients, z);
+        double cosRMinusOne = z * polynomial(cosCoefficients, z);
+        int j = (int) k & (TRIG_TABLE_SIZE - 1);
+        // cos(a) * cos(r) - sin(a) * sin(r)
+        return COS_TABLE[j] + (COS_TABLE[j] * cosRMinusOne - SIN_TABLE[j] * sinR);
+    }
+
+    // sin и cos из одного сведения аргумента
+    static double tan(double x, double[] sinCoefficients, double[] cosCoefficients) {
+        double abs = Math.abs(x);
+        if (!(abs >= TRIG_TINY && abs < TRIG_LIMIT)) {
+            return Math.tan(x);
+        }
+        double k = Math.rint(x * INVERSE_STEP);
+        double r = x - k * STEP_1 - k * STEP_2 - k * STEP_3;
+        double z = r * r;
+        double sinR = r + r * z * polynomial(sinCoefficients, z);
+        double cosRMinusOne = z * polynomial(cosCoefficients, z);
+        int j = (int) k & (TRIG_TABLE_SIZE - 1);
+        double sin = SIN_TABLE[j] + (SIN_TABLE[j] * cosRMinusOne + COS_TABLE[j] * sinR);
+        double cos = COS_TABLE[j] + (COS_TABLE[j] * cosRMinusOne - SIN_TABLE[j] * sinR);
+        return sin / cos;
+    }
+
+    static double exp(double x, double[] coefficients) {
+        if (!(Math.abs(x) <= EXP_LIMIT)) {
+            return Math.exp(x);
+        }
+        double k = Math.rint(x * INVERSE_LN2_64);
+        double r = x - k * LN2_64_HI - k * LN2_64_LO;
+        int n = (int) k;
+        double table = EXP_TABLE[n & (EXP_TABLE_SIZE - 1)];
+        // 2^(n >> 6) - нормализованное число при |x| <= EXP_LIMIT
+        double scale = Double.longBitsToDouble((long) ((n >> 6) + 1023) << 52);
+        double expRMinusOne = r + r * r * polynomial(coefficients, r);
+        return (table + table * expRMinusOne) * scale;
+    }
+
+    // Натуральный логарифм; для x <= 0 - как Math.log
+    static double log(double x, double[] coefficients) {
+        if (!(x >= Double.MIN_NORMAL && x < Double.POSITIVE_INFINITY)) {
+            return Math.log(x);
+        }
+        long bits = Double.doubleToRawLongBits(x);
+        // Ближайший к мантиссе узел: старшие 7 битов дробной части с округлением, i от 0 до 128
+        int i = (int) (((bits & MANTISSA_MASK) + (1L << 44)) >>> 45);
+        double m = Double.longBitsToDouble(bits & MANTISSA_MASK | ONE_BITS);
+        // m - c вычисляется точно (m и c отличаются не более чем вдвое)
+        double r = (m - LOG_NODE[i]) * LOG_INVERSE_NODE[i];
+        int e = (int) (bits >>> 52) - 1023 + ((i + 64) >> 7);
+        double log1p = r + r * r * polynomial(coefficients, r);
+        return (e * LN2_HI + LOG_TABLE[i]) + (e * LN2_LO + log1p);
+    }
+}
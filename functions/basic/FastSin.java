@@ -0,0 +1,35 @@
+package functions.basic;
+
+// Быстрое приближение sin(x) с заданной точностью (см. Accuracy и FastMath)
+public class FastSin extends TrigonometricFunction {
+    private final Accuracy accuracy;
+    private final double[] sinCoefficients;
+    private final double[] cosCoefficients;
+
+    public FastSin(Accuracy accuracy) {
+        if (accuracy == null) {
+            throw new IllegalArgumentException("Уровень точности не может быть null");
+        }
+        this.accuracy = accuracy;
+        this.sinCoefficients = FastMath.SIN[accuracy.ordinal()];
+        this.cosCoefficients = FastMath.COS[accuracy.ordinal()];
+    }
+
+    public Accuracy getAccuracy() {
+        return accuracy;
+    }
+
+    public double getFunctionValue(double x) {
+        return FastMath.sin(x, sinCoefficients, cosCoefficients);
+    }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] values) {
+        if (values.length < xs.length) {
+            throw new IllegalArgumentException("Массив результатов короче массива аргументов");
+        }
+        for (int i = 0; i < xs.length; i++) {
+            values[i] = FastMath.sin(xs[i], sinCoefficients, cosCoefficients);
+        }
+    }
+}
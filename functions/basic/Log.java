@@ -4,12 +4,19 @@ import functions.Function;
 
 public class Log implements Function {
     private double base;
+    // ln(base) вычисляется один раз, а не при каждом вызове getFunctionValue
+    private final double logBase;
 
     public Log(double base) {
         if (base <= 0 || base == 1) {
             throw new IllegalArgumentException("Основание логарифма должно быть >1 && !=1");
         }
         this.base = base;
+        this.logBase = Math.log(base);
+    }
+
+    public double getBase() {
+        return base;
     }
 
     public double getLeftDomainBorder() {
@@ -24,6 +31,17 @@ public class Log implements Function {
         if (x <= 0) {
             return Double.NaN;
         }
-        return Math.log(x) / Math.log(base);
+        return Math.log(x) / logBase;
+    }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] values) {
+        if (values.length < xs.length) {
+            throw new IllegalArgumentException("Массив результатов короче массива аргументов");
+        }
+        for (int i = 0; i < xs.length; i++) {
+            double x = xs[i];
+            values[i] = x <= 0 ? Double.NaN : Math.log(x) / logBase;
+        }
     }
 }
@@ -4,4 +4,14 @@ public class Sin extends TrigonometricFunction {
     public double getFunctionValue(double x) {
         return Math.sin(x);
     }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] values) {
+        if (values.length < xs.length) {
+            throw new IllegalArgumentException("Массив результатов короче массива аргументов");
+        }
+        for (int i = 0; i < xs.length; i++) {
+            values[i] = Math.sin(xs[i]);
+        }
+    }
 }
@@ -0,0 +1,73 @@
+package functions.meta;
+
+import functions.Function;
+
+// Аффинное преобразование графика функции: scaleY * f((x - shiftX) / scaleX) + shiftY
+// Scale и Shift - частные случаи; Simplifier сворачивает их цепочки в один такой узел
+public class Affine implements Function {
+    private final Function function;
+    private final double scaleX;
+    private final double shiftX;
+    private final double scaleY;
+    private final double shiftY;
+
+    public Affine(Function function, double scaleX, double shiftX, double scaleY, double shiftY) {
+        if (scaleX == 0 || Double.isNaN(scaleX)) {
+            throw new IllegalArgumentException("Коэффициент растяжения по X не может быть равен нулю");
+        }
+        this.function = function;
+        this.scaleX = scaleX;
+        this.shiftX = shiftX;
+        this.scaleY = scaleY;
+        this.shiftY = shiftY;
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    public double getScaleX() {
+        return scaleX;
+    }
+
+    public double getShiftX() {
+        return shiftX;
+    }
+
+    public double getScaleY() {
+        return scaleY;
+    }
+
+    public double getShiftY() {
+        return shiftY;
+    }
+
+    // Точка u области определения f переходит в scaleX * u + shiftX
+    public double getLeftDomainBorder() {
+        double border = scaleX > 0 ? function.getLeftDomainBorder() : function.getRightDomainBorder();
+        return scaleX * border + shiftX;
+    }
+
+    public double getRightDomainBorder() {
+        double border = scaleX > 0 ? function.getRightDomainBorder() : function.getLeftDomainBorder();
+        return scaleX * border + shiftX;
+    }
+
+    public double getFunctionValue(double x) {
+        return scaleY * function.getFunctionValue((x - shiftX) / scaleX) + shiftY;
+    }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] values) {
+        if (values.length < xs.length) {
+            throw new IllegalArgumentException("Массив результатов короче массива аргументов");
+        }
+        for (int i = 0; i < xs.length; i++) {
+            values[i] = (xs[i] - shiftX) / scaleX;
+        }
+        function.getFunctionValues(values, values);
+        for (int i = 0; i < xs.length; i++) {
+            values[i] = scaleY * values[i] + shiftY;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package functions.meta;
+
+import functions.Function;
+import functions.basic.*;
+
+// Замена точных элементарных функций в дереве мета-функций их быстрыми вариантами заданной точности:
+// Sin, Cos, Tan, Exp и Log становятся FastSin, FastCos, FastTan, FastExp и FastLog (см. Accuracy)
+// Узлы Sum, Mult, Power, Composition, Scale, Shift и Affine пересоздаются, только если изменились их
+// аргументы; остальные функции (табулированные, пользовательские, уже быстрые) не меняются
+public final class Approximator {
+    // Приватный конструктор чтобы запретить создание экземпляров
+    private Approximator() {
+        throw new AssertionError("Нельзя создать экземпляр класса Approximator");
+    }
+
+    public static Function approximate(Function function, Accuracy accuracy) {
+        if (function == null) {
+            throw new IllegalArgumentException("Функция не может быть null");
+        }
+        if (accuracy == null) {
+            throw new IllegalArgumentException("Уровень точности не может быть null");
+        }
+        return substitute(function, accuracy);
+    }
+
+    private static Function substitute(Function function, Accuracy accuracy) {
+        // Точное сравнение классов: наследники базовых функций и узлов пакета могут вычислять что-то другое,
+        // поэтому они не заменяются и не пересоздаются
+        Class<?> type = function.getClass();
+        if (type == Sin.class) {
+            return new FastSin(accuracy);
+        }
+        if (type == Cos.class) {
+            return new FastCos(accuracy);
+        }
+        if (type == Tan.class) {
+            return new FastTan(accuracy);
+        }
+        if (type == Exp.class) {
+            return new FastExp(accuracy);
+        }
+        if (type == Log.class) {
+            return new FastLog(((Log) function).getBase(), accuracy);
+        }
+        if (type == Sum.class) {
+            Sum sum = (Sum) function;
+            Function first = substitute(sum.getFirst(), accuracy);
+            Function second = substitute(sum.getSecond(), accuracy);
+            return first == sum.getFirst() && second == sum.getSecond() ? sum : new Sum(first, second);
+        }
+        if (type == Mult.class) {
+            Mult mult = (Mult) function;
+            Function first = substitute(mult.getFirst(), accuracy);
+            Function second = substitute(mult.getSecond(), accuracy);
+            return first == mult.getFirst() && second == mult.getSecond() ? mult : new Mult(first, second);
+        }
+        if (type == Power.class) {
+            Power power = (Power) function;
+            Function base = substitute(power.getFunction(), accuracy);
+            return base == power.getFunction() ? power : new Power(base, power.getPower());
+        }
+        if (type == Composition.class) {
+            Composition composition = (Composition) function;
+            Function outer = substitute(composition.getOuter(), accuracy);
+            Function inner = substitute(composition.getInner(), accuracy);
+            return outer == composition.getOuter() && inner == composition.getInner()
+                ? composition : new Composition(outer, inner);
+        }
+        if (type == Scale.class) {
+            Scale scale = (Scale) function;
+            Function argument = substitute(scale.getFunction(), accuracy);
+            return argument == scale.getFunction() ? scale : new Scale(argument, scale.getScaleX(), scale.getScaleY());
+        }
+        if (type == Shift.class) {
+            Shift shift = (Shift) function;
+            Function argument = substitute(shift.getFunction(), accuracy);
+            return argument == shift.getFunction() ? shift : new Shift(argument, shift.getShiftX(), shift.getShiftY());
+        }
+        if (type == Affine.class) {
+            Affine affine = (Affine) function;
+            Function argument = substitute(affine.getFunction(), accuracy);
+            return argument == affine.getFunction() ? affine : new Affine(argument,
+                affine.getScaleX(), affine.getShiftX(), affine.getScaleY(), affine.getShiftY());
+        }
+        return function;
+    }
+}
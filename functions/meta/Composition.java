@@ -0,0 +1,41 @@
+package functions.meta;
+
+import functions.Function;
+
+// Композиция outer(inner(x)); область определения - область определения внутренней функции
+public class Composition implements Function {
+    private final Function outer;
+    private final Function inner;
+
+    public Composition(Function outer, Function inner) {
+        this.outer = outer;
+        this.inner = inner;
+    }
+
+    public Function getOuter() {
+        return outer;
+    }
+
+    public Function getInner() {
+        return inner;
+    }
+
+    public double getLeftDomainBorder() {
+        return inner.getLeftDomainBorder();
+    }
+
+    public double getRightDomainBorder() {
+        return inner.getRightDomainBorder();
+    }
+
+    public double getFunctionValue(double x) {
+        return outer.getFunctionValue(inner.getFunctionValue(x));
+    }
+
+    // Значения внутренней функции становятся аргументами внешней прямо в массиве values
+    @Override
+    public void getFunctionValues(double[] xs, double[] values) {
+        inner.getFunctionValues(xs, values);
+        outer.getFunctionValues(values, values);
+    }
+}
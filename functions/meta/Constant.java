@@ -0,0 +1,38 @@
+package functions.meta;
+
+import functions.Function;
+
+import java.util.Arrays;
+
+// Постоянная функция, определенная на всей числовой прямой; результат свертки констант в Simplifier
+public class Constant implements Function {
+    private final double value;
+
+    public Constant(double value) {
+        this.value = value;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public double getLeftDomainBorder() {
+        return Double.NEGATIVE_INFINITY;
+    }
+
+    public double getRightDomainBorder() {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    public double getFunctionValue(double x) {
+        return value;
+    }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] values) {
+        if (values.length < xs.length) {
+            throw new IllegalArgumentException("Массив результатов короче массива аргументов");
+        }
+        Arrays.fill(values, 0, xs.length, value);
+    }
+}
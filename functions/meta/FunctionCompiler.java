@@ -0,0 +1,464 @@
+package functions.meta;
+
+import functions.Function;
+import functions.basic.Cos;
+import functions.basic.Exp;
+import functions.basic.Log;
+import functions.basic.Sin;
+import functions.basic.Tan;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Компилятор дерева функций в скрытый класс (MethodHandles.Lookup.defineHiddenClass)
+// Вычисление дерева - цепочка интерфейсных вызовов getFunctionValue, которые JIT не встраивает, если в одном
+// месте вызова встречается больше двух классов узлов. Компилятор упрощает дерево (см. Simplifier) и порождает
+// класс, в котором getFunctionValue - одна линейная последовательность инструкций без вызовов узлов:
+// - Sum, Mult, Power, Composition, Scale, Shift, Affine и Constant разворачиваются в арифметику над double;
+// - Sin, Cos, Tan и Exp - прямые вызовы Math, Log - вызов статического метода с заранее вычисленным ln(base);
+// - остальные функции (табулированные, пользовательские) становятся листьями: ссылки на них хранятся
+//   в static final полях, которые JIT считает константами, поэтому вызов листа связывается с его классом
+//   и встраивается.
+// Результат вычисляется теми же операциями в том же порядке, что и упрощенное дерево. Листья не копируются:
+// изменения табулированной функции видны скомпилированной. Очень большие выражения (код метода длиннее
+// предела, до которого JIT компилирует методы) и слишком глубокие деревья возвращаются упрощенными,
+// но не скомпилированными
+public final class FunctionCompiler {
+    // Методы длиннее 8000 байт кода HotSpot не компилирует (если не задан -XX:-DontCompileHugeMethods)
+    private static final int HUGE_METHOD_LIMIT = 8000;
+    // Предел вложенности дерева: порождение кода рекурсивно, как и вычисление самого дерева
+    private static final int MAX_DEPTH = 1000;
+    private static final String FUNCTION = "functions/Function";
+    private static final String COMPILER = "functions/meta/FunctionCompiler";
+    // Имя порождаемого класса; JVM дополняет имя скрытого класса уникальным суффиксом
+    private static final String COMPILED = "functions/meta/CompiledFunction";
+
+    // Приватный конструктор чтобы запретить создание экземпляров
+    private FunctionCompiler() {
+        throw new AssertionError("Нельзя создать экземпляр класса FunctionCompiler");
+    }
+
+    public static Function compile(Function function) {
+        if (function == null) {
+            throw new IllegalArgumentException("Функция не может быть null");
+        }
+        Function simplified = Simplifier.simplify(function);
+
+        ClassBuilder builder = new ClassBuilder(simplified);
+        byte[] bytes = builder.build(simplified);
+        if (bytes == null) {
+            return simplified;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup()
+                .defineHiddenClassWithClassData(bytes, builder.constants.toArray(), true);
+            return (Function) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Ошибка при компиляции функции", e);
+        }
+    }
+
+    // Логарифм в точности как Log.getFunctionValue; вызывается скомпилированным кодом
+    static double log(double x, double logBase) {
+        if (x <= 0) {
+            return Double.NaN;
+        }
+        return Math.log(x) / logBase;
+    }
+
+    // Построитель класса: пул констант, поля-листья и код метода getFunctionValue
+    // Порожденный код не содержит переходов, поэтому атрибут StackMapTable не нужен
+    private static final class ClassBuilder {
+        private static final int ACC_PUBLIC = 0x0001;
+        private static final int ACC_PRIVATE = 0x0002;
+        private static final int ACC_STATIC = 0x0008;
+        private static final int ACC_FINAL = 0x0010;
+        private static final int ACC_SUPER = 0x0020;
+
+        // Константы класса (classData): [0] - упрощенная функция (для границ области определения, совпадающих
+        // с границами возвращаемого без компиляции дерева), далее листья
+        private final List<Object> constants = new ArrayList<>();
+        private final Map<Function, Integer> leaves = new IdentityHashMap<>();
+
+        private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        private final DataOutputStream poolOut = new DataOutputStream(pool);
+        private final Map<String, Integer> poolIndex = new HashMap<>();
+        private int poolCount = 1;
+        // Количество обработанных узлов (каждый дает хотя бы один байт кода) и текущая глубина
+        private int nodes;
+        private int depth;
+
+        private ClassBuilder(Function source) {
+            constants.add(source);
+        }
+
+        private byte[] build(Function function) {
+            try {
+                Code value = new Code(3);
+                if (!emit(value, function, 1)) {
+                    return null;
+                }
+                value.op(0xAF, -2); // dreturn
+                if (value.length() > HUGE_METHOD_LIMIT) {
+                    return null;
+                }
+
+                Code left = borderCode("getLeftDomainBorder");
+                Code right = borderCode("getRightDomainBorder");
+
+                Code init = new Code(1);
+                init.op(0x2A, 1); // aload_0
+                init.op(0xB7, -1).u2(methodRef("java/lang/Object", "<init>", "()V")); // invokespecial
+                init.op(0xB1, 0); // return
+
+                Code clinit = new Code(1);
+                clinit.op(0xB8, 1).u2(methodRef("java/lang/invoke/MethodHandles", "lookup",
+                    "()Ljava/lang/invoke/MethodHandles$Lookup;")); // invokestatic
+                clinit.op(0x13, 1).u2(stringConstant("_")); // ldc_w
+                clinit.op(0x13, 1).u2(classConstant("[Ljava/lang/Object;"));
+                clinit.op(0xB8, -2).u2(methodRef("java/lang/invoke/MethodHandles", "classData",
+                    "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;"));
+                clinit.op(0xC0, 0).u2(classConstant("[Ljava/lang/Object;")); // checkcast
+                clinit.op(0x4B, -1); // astore_0
+                for (int i = 0; i < constants.size(); i++) {
+                    clinit.op(0x2A, 1); // aload_0
+                    clinit.op(0x11, 1).u2(i); // sipush
+                    clinit.op(0x32, -1); // aaload
+                    clinit.op(0xC0, 0).u2(classConstant(FUNCTION)); // checkcast
+                    clinit.op(0xB3, -1).u2(fieldRef(i)); // putstatic
+                }
+                clinit.op(0xB1, 0); // return
+
+                int thisClass = classConstant(COMPILED);
+                int superClass = classConstant("java/lang/Object");
+                int functionInterface = classConstant(FUNCTION);
+                int fieldDescriptor = utf8("L" + FUNCTION + ";");
+                int[] fieldNames = new int[constants.size()];
+                for (int i = 0; i < fieldNames.length; i++) {
+                    fieldNames[i] = utf8("c" + i);
+                }
+                int codeName = utf8("Code");
+                int[][] methods = {
+                    {ACC_PUBLIC, utf8("<init>"), utf8("()V")},
+                    {ACC_STATIC, utf8("<clinit>"), utf8("()V")},
+                    {ACC_PUBLIC, utf8("getLeftDomainBorder"), utf8("()D")},
+                    {ACC_PUBLIC, utf8("getRightDomainBorder"), utf8("()D")},
+                    {ACC_PUBLIC, utf8("getFunctionValue"), utf8("(D)D")},
+                };
+                Code[] codes = {init, clinit, left, right, value};
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(61); // Java 17
+                out.writeShort(poolCount);
+                poolOut.flush();
+                pool.writeTo(out);
+                out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+                out.writeShort(thisClass);
+                out.writeShort(superClass);
+                out.writeShort(1);
+                out.writeShort(functionInterface);
+
+                out.writeShort(fieldNames.length);
+                for (int name : fieldNames) {
+                    out.writeShort(ACC_PRIVATE | ACC_STATIC | ACC_FINAL);
+                    out.writeShort(name);
+                    out.writeShort(fieldDescriptor);
+                    out.writeShort(0);
+                }
+
+                out.writeShort(methods.length);
+                for (int i = 0; i < methods.length; i++) {
+                    out.writeShort(methods[i][0]);
+                    out.writeShort(methods[i][1]);
+                    out.writeShort(methods[i][2]);
+                    out.writeShort(1);
+                    codes[i].writeTo(out, codeName);
+                }
+                out.writeShort(0);
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private Code borderCode(String method) {
+            Code code = new Code(1);
+            code.op(0xB2, 1).u2(fieldRef(0)); // getstatic
+            code.op(0xB9, 1).u2(interfaceMethodRef(FUNCTION, method, "()D")).u1(1).u1(0); // invokeinterface
+            code.op(0xAF, -2); // dreturn
+            return code;
+        }
+
+        // Код, оставляющий на стеке значение function в точке из локальной переменной argument
+        // false - выражение слишком велико для компиляции, код не дописан
+        private boolean emit(Code code, Function function, int argument) {
+            if (++nodes > HUGE_METHOD_LIMIT || depth == MAX_DEPTH) {
+                return false;
+            }
+            depth++;
+            boolean emitted = emitNode(code, function, argument);
+            depth--;
+            return emitted;
+        }
+
+        private boolean emitNode(Code code, Function function, int argument) {
+            Class<?> type = function.getClass();
+            if (type == Constant.class) {
+                code.ldc(doubleConstant(((Constant) function).getValue()));
+            } else if (type == Sum.class || type == Mult.class) {
+                Function first = type == Sum.class ? ((Sum) function).getFirst() : ((Mult) function).getFirst();
+                Function second = type == Sum.class ? ((Sum) function).getSecond() : ((Mult) function).getSecond();
+                if (!emit(code, first, argument) || !emit(code, second, argument)) {
+                    return false;
+                }
+                code.op(type == Sum.class ? 0x63 : 0x6B, -2); // dadd / dmul
+            } else if (type == Power.class) {
+                Power power = (Power) function;
+                if (!emit(code, power.getFunction(), argument)) {
+                    return false;
+                }
+                code.ldc(doubleConstant(power.getPower()));
+                code.op(0xB8, -2).u2(methodRef("java/lang/Math", "pow", "(DD)D"));
+            } else if (type == Composition.class) {
+                Composition composition = (Composition) function;
+                if (!emit(code, composition.getInner(), argument)) {
+                    return false;
+                }
+                int inner = code.newLocal();
+                code.store(inner);
+                return emit(code, composition.getOuter(), inner);
+            } else if (type == Scale.class) {
+                Scale scale = (Scale) function;
+                return emitAffine(code, scale.getFunction(), argument, scale.getScaleX(), null, scale.getScaleY(), null);
+            } else if (type == Shift.class) {
+                Shift shift = (Shift) function;
+                return emitAffine(code, shift.getFunction(), argument, null, shift.getShiftX(), null, shift.getShiftY());
+            } else if (type == Affine.class) {
+                Affine affine = (Affine) function;
+                return emitAffine(code, affine.getFunction(), argument,
+                    affine.getScaleX(), affine.getShiftX(), affine.getScaleY(), affine.getShiftY());
+            } else if (type == Sin.class || type == Cos.class || type == Tan.class || type == Exp.class) {
+                code.load(argument);
+                String name = type == Sin.class ? "sin" : type == Cos.class ? "cos" : type == Tan.class ? "tan" : "exp";
+                code.op(0xB8, 0).u2(methodRef("java/lang/Math", name, "(D)D"));
+            } else if (type == Log.class) {
+                code.load(argument);
+                code.ldc(doubleConstant(Math.log(((Log) function).getBase())));
+                code.op(0xB8, -2).u2(methodRef(COMPILER, "log", "(DD)D"));
+            } else {
+                Integer index = leaves.get(function);
+                if (index == null) {
+                    index = constants.size();
+                    constants.add(function);
+                    leaves.put(function, index);
+                }
+                code.op(0xB2, 1).u2(fieldRef(index)); // getstatic
+                code.load(argument);
+                code.op(0xB9, -1).u2(interfaceMethodRef(FUNCTION, "getFunctionValue", "(D)D")).u1(3).u1(0); // invokeinterface
+            }
+            return true;
+        }
+
+        // scaleY * f((x - shiftX) / scaleX) + shiftY; отсутствующие (null) коэффициенты не вычисляются,
+        // чтобы Scale и Shift выполняли ровно те же операции, что и их getFunctionValue
+        private boolean emitAffine(Code code, Function function, int argument,
+                                Double scaleX, Double shiftX, Double scaleY, Double shiftY) {
+            code.load(argument);
+            if (shiftX != null) {
+                code.ldc(doubleConstant(shiftX));
+                code.op(0x67, -2); // dsub
+            }
+            if (scaleX != null) {
+                code.ldc(doubleConstant(scaleX));
+                code.op(0x6F, -2); // ddiv
+            }
+            int transformed = code.newLocal();
+            code.store(transformed);
+            if (scaleY != null) {
+                code.ldc(doubleConstant(scaleY));
+            }
+            if (!emit(code, function, transformed)) {
+                return false;
+            }
+            if (scaleY != null) {
+                code.op(0x6B, -2); // dmul
+            }
+            if (shiftY != null) {
+                code.ldc(doubleConstant(shiftY));
+                code.op(0x63, -2); // dadd
+            }
+            return true;
+        }
+
+        // Пул констант; одинаковые элементы записываются один раз
+        private int utf8(String value) {
+            return entry("U" + value, () -> {
+                poolOut.writeByte(1);
+                poolOut.writeUTF(value);
+            }, 1);
+        }
+
+        private int classConstant(String name) {
+            int nameIndex = utf8(name);
+            return entry("C" + name, () -> {
+                poolOut.writeByte(7);
+                poolOut.writeShort(nameIndex);
+            }, 1);
+        }
+
+        private int stringConstant(String value) {
+            int valueIndex = utf8(value);
+            return entry("S" + value, () -> {
+                poolOut.writeByte(8);
+                poolOut.writeShort(valueIndex);
+            }, 1);
+        }
+
+        // Ключ - биты значения, поэтому 0.0 и -0.0 (и разные NaN) остаются разными константами
+        private int doubleConstant(double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            return entry("D" + bits, () -> {
+                poolOut.writeByte(6);
+                poolOut.writeLong(bits);
+            }, 2);
+        }
+
+        private int member(int tag, String owner, String name, String descriptor) {
+            int ownerIndex = classConstant(owner);
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            int nameAndType = entry("N" + name + " " + descriptor, () -> {
+                poolOut.writeByte(12);
+                poolOut.writeShort(nameIndex);
+                poolOut.writeShort(descriptorIndex);
+            }, 1);
+            return entry(tag + owner + "." + name + descriptor, () -> {
+                poolOut.writeByte(tag);
+                poolOut.writeShort(ownerIndex);
+                poolOut.writeShort(nameAndType);
+            }, 1);
+        }
+
+        private int methodRef(String owner, String name, String descriptor) {
+            return member(10, owner, name, descriptor);
+        }
+
+        private int interfaceMethodRef(String owner, String name, String descriptor) {
+            return member(11, owner, name, descriptor);
+        }
+
+        private int fieldRef(int index) {
+            return member(9, COMPILED, "c" + index, "L" + FUNCTION + ";");
+        }
+
+        private interface PoolWriter {
+            void write() throws IOException;
+        }
+
+        // Запись в ByteArrayOutputStream не бросает IOException
+        private int entry(String key, PoolWriter writer, int size) {
+            Integer index = poolIndex.get(key);
+            if (index == null) {
+                if (poolCount + size > 0xFFFF) {
+                    throw new IllegalStateException("Слишком большое выражение для компиляции");
+                }
+                try {
+                    writer.write();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                index = poolCount;
+                poolCount += size;
+                poolIndex.put(key, index);
+            }
+            return index;
+        }
+    }
+
+    // Код одного метода с подсчетом глубины стека операндов и числа локальных переменных (в слотах)
+    private static final class Code {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private int stack;
+        private int maxStack;
+        private int maxLocals;
+
+        private Code(int locals) {
+            maxLocals = locals;
+        }
+
+        private Code op(int opcode, int stackChange) {
+            bytes.write(opcode);
+            stack += stackChange;
+            maxStack = Math.max(maxStack, stack);
+            return this;
+        }
+
+        private Code u1(int value) {
+            bytes.write(value);
+            return this;
+        }
+
+        private Code u2(int value) {
+            bytes.write(value >>> 8);
+            bytes.write(value);
+            return this;
+        }
+
+        private void ldc(int index) {
+            op(0x14, 2).u2(index); // ldc2_w
+        }
+
+        private int newLocal() {
+            int local = maxLocals;
+            maxLocals += 2;
+            if (maxLocals > 0xFFFF) {
+                throw new IllegalStateException("Слишком большое выражение для компиляции");
+            }
+            return local;
+        }
+
+        private void load(int local) {
+            localOp(0x18, local, 2); // dload
+        }
+
+        private void store(int local) {
+            localOp(0x39, local, -2); // dstore
+        }
+
+        private void localOp(int opcode, int local, int stackChange) {
+            if (local > 0xFF) {
+                op(0xC4, 0); // wide
+                op(opcode, stackChange).u2(local);
+            } else {
+                op(opcode, stackChange).u1(local);
+            }
+        }
+
+        private int length() {
+            return bytes.size();
+        }
+
+        private void writeTo(DataOutputStream out, int codeName) throws IOException {
+            out.writeShort(codeName);
+            out.writeInt(12 + bytes.size());
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+    }
+}
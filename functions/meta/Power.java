@@ -0,0 +1,42 @@
+package functions.meta;
+
+import functions.Function;
+
+// Степень функции: f(x) ^ power
+public class Power implements Function {
+    private final Function function;
+    private final double power;
+
+    public Power(Function function, double power) {
+        this.function = function;
+        this.power = power;
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    public double getPower() {
+        return power;
+    }
+
+    public double getLeftDomainBorder() {
+        return function.getLeftDomainBorder();
+    }
+
+    public double getRightDomainBorder() {
+        return function.getRightDomainBorder();
+    }
+
+    public double getFunctionValue(double x) {
+        return Math.pow(function.getFunctionValue(x), power);
+    }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] values) {
+        function.getFunctionValues(xs, values);
+        for (int i = 0; i < xs.length; i++) {
+            values[i] = Math.pow(values[i], power);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package functions.meta;
+
+import functions.Function;
+
+// Растяжение графика функции вдоль осей: scaleY * f(x / scaleX)
+// Область определения растягивается в scaleX раз (при scaleX < 0 отражается)
+public class Scale implements Function {
+    private final Function function;
+    private final double scaleX;
+    private final double scaleY;
+
+    public Scale(Function function, double scaleX, double scaleY) {
+        if (scaleX == 0 || Double.isNaN(scaleX)) {
+            throw new IllegalArgumentException("Коэффициент растяжения по X не может быть равен нулю");
+        }
+        this.function = function;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    public double getScaleX() {
+        return scaleX;
+    }
+
+    public double getScaleY() {
+        return scaleY;
+    }
+
+    public double getLeftDomainBorder() {
+        return scaleX > 0 ? function.getLeftDomainBorder() * scaleX : function.getRightDomainBorder() * scaleX;
+    }
+
+    public double getRightDomainBorder() {
+        return scaleX > 0 ? function.getRightDomainBorder() * scaleX : function.getLeftDomainBorder() * scaleX;
+    }
+
+    public double getFunctionValue(double x) {
+        return scaleY * function.getFunctionValue(x / scaleX);
+    }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] values) {
+        if (values.length < xs.length) {
+            throw new IllegalArgumentException("Массив результатов короче массива аргументов");
+        }
+        for (int i = 0; i < xs.length; i++) {
+            values[i] = xs[i] / scaleX;
+        }
+        function.getFunctionValues(values, values);
+        for (int i = 0; i < xs.length; i++) {
+            values[i] *= scaleY;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package functions.meta;
+
+import functions.Function;
+
+// Сдвиг графика функции вдоль осей: f(x - shiftX) + shiftY
+public class Shift implements Function {
+    private final Function function;
+    private final double shiftX;
+    private final double shiftY;
+
+    public Shift(Function function, double shiftX, double shiftY) {
+        this.function = function;
+        this.shiftX = shiftX;
+        this.shiftY = shiftY;
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    public double getShiftX() {
+        return shiftX;
+    }
+
+    public double getShiftY() {
+        return shiftY;
+    }
+
+    public double getLeftDomainBorder() {
+        return function.getLeftDomainBorder() + shiftX;
+    }
+
+    public double getRightDomainBorder() {
+        return function.getRightDomainBorder() + shiftX;
+    }
+
+    public double getFunctionValue(double x) {
+        return function.getFunctionValue(x - shiftX) + shiftY;
+    }
+
+    @Override
+    public void getFunctionValues(double[] xs, double[] values) {
+        if (values.length < xs.length) {
+            throw new IllegalArgumentException("Массив результатов короче массива аргументов");
+        }
+        for (int i = 0; i < xs.length; i++) {
+            values[i] = xs[i] - shiftX;
+        }
+        function.getFunctionValues(values, values);
+        for (int i = 0; i < xs.length; i++) {
+            values[i] += shiftY;
+        }
+    }
+}
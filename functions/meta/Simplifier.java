@@ -0,0 +1,115 @@
+package functions.meta;
+
+import functions.Function;
+
+// Упрощение дерева мета-функций перед многократным вычислением
+// - цепочки Scale, Shift и Affine сворачиваются в один узел Affine: scale(shift(scale(f))) вычисляется
+//   одним преобразованием аргумента и значения вместо трех виртуальных вызовов;
+// - сложение и умножение на константу становятся частью того же преобразования значения;
+// - выражения из одних констант вычисляются сразу, f ^ 1 заменяется на f.
+// Результат совпадает с исходной функцией с точностью до округления коэффициентов свернутых преобразований
+// и имеет ту же область определения; узлы других классов (табулированные, базовые функции, наследники
+// классов пакета) не меняются
+public final class Simplifier {
+    // Приватный конструктор чтобы запретить создание экземпляров
+    private Simplifier() {
+        throw new AssertionError("Нельзя создать экземпляр класса Simplifier");
+    }
+
+    // Узлы распознаются по точному классу: наследник Scale, Sum, Constant и т.д. может вычислять значение
+    // по-своему, поэтому он, как и любая другая функция, остается без изменений
+    public static Function simplify(Function function) {
+        if (function.getClass() == Scale.class) {
+            Scale scale = (Scale) function;
+            return affine(simplify(scale.getFunction()), scale.getScaleX(), 0.0, scale.getScaleY(), 0.0);
+        }
+        if (function.getClass() == Shift.class) {
+            Shift shift = (Shift) function;
+            return affine(simplify(shift.getFunction()), 1.0, shift.getShiftX(), 1.0, shift.getShiftY());
+        }
+        if (function.getClass() == Affine.class) {
+            Affine affine = (Affine) function;
+            return affine(simplify(affine.getFunction()),
+                affine.getScaleX(), affine.getShiftX(), affine.getScaleY(), affine.getShiftY());
+        }
+        if (function.getClass() == Sum.class) {
+            Sum sum = (Sum) function;
+            Function first = simplify(sum.getFirst());
+            Function second = simplify(sum.getSecond());
+            if (isConstant(first) && isConstant(second)) {
+                return new Constant(((Constant) first).getValue() + ((Constant) second).getValue());
+            }
+            // Константа определена везде, поэтому область определения суммы - область второго слагаемого
+            if (isConstant(first)) {
+                return affine(second, 1.0, 0.0, 1.0, ((Constant) first).getValue());
+            }
+            if (isConstant(second)) {
+                return affine(first, 1.0, 0.0, 1.0, ((Constant) second).getValue());
+            }
+            return first == sum.getFirst() && second == sum.getSecond() ? sum : new Sum(first, second);
+        }
+        if (function.getClass() == Mult.class) {
+            Mult mult = (Mult) function;
+            Function first = simplify(mult.getFirst());
+            Function second = simplify(mult.getSecond());
+            if (isConstant(first) && isConstant(second)) {
+                return new Constant(((Constant) first).getValue() * ((Constant) second).getValue());
+            }
+            if (isConstant(first)) {
+                return affine(second, 1.0, 0.0, ((Constant) first).getValue(), 0.0);
+            }
+            if (isConstant(second)) {
+                return affine(first, 1.0, 0.0, ((Constant) second).getValue(), 0.0);
+            }
+            return first == mult.getFirst() && second == mult.getSecond() ? mult : new Mult(first, second);
+        }
+        if (function.getClass() == Power.class) {
+            Power power = (Power) function;
+            Function base = simplify(power.getFunction());
+            if (isConstant(base)) {
+                return new Constant(Math.pow(((Constant) base).getValue(), power.getPower()));
+            }
+            if (power.getPower() == 1.0) {
+                return base;
+            }
+            return base == power.getFunction() ? power : new Power(base, power.getPower());
+        }
+        if (function.getClass() == Composition.class) {
+            Composition composition = (Composition) function;
+            Function outer = simplify(composition.getOuter());
+            Function inner = simplify(composition.getInner());
+            // Область определения композиции - область внутренней функции, у константы это вся прямая
+            if (isConstant(inner)) {
+                return new Constant(outer.getFunctionValue(((Constant) inner).getValue()));
+            }
+            return outer == composition.getOuter() && inner == composition.getInner()
+                ? composition : new Composition(outer, inner);
+        }
+        return function;
+    }
+
+    // Узел scaleY * f((x - shiftX) / scaleX) + shiftY над уже упрощенной f; вложенный Affine поглощается:
+    // sy * (a.sy * g((u - a.dx) / a.sx) + a.dy) + dy, u = (x - dx) / sx
+    //     = (sy * a.sy) * g((x - dx - sx * a.dx) / (sx * a.sx)) + (sy * a.dy + dy)
+    private static Function affine(Function function, double scaleX, double shiftX, double scaleY, double shiftY) {
+        if (function.getClass() == Affine.class) {
+            Affine inner = (Affine) function;
+            shiftX += scaleX * inner.getShiftX();
+            scaleX *= inner.getScaleX();
+            shiftY += scaleY * inner.getShiftY();
+            scaleY *= inner.getScaleY();
+            function = inner.getFunction();
+        }
+        if (isConstant(function)) {
+            return new Constant(scaleY * ((Constant) function).getValue() + shiftY);
+        }
+        if (scaleX == 1.0 && shiftX == 0.0 && scaleY == 1.0 && shiftY == 0.0) {
+            return function;
+        }
+        return new Affine(function, scaleX, shiftX, scaleY, shiftY);
+    }
+
+    private static boolean isConstant(Function function) {
+        return function.getClass() == Constant.class;
+    }
+}
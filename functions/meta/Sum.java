@@ -0,0 +1,48 @@
+package functions.meta;
+
+import functions.Function;
+
+// Сумма двух функций; область определения - пересечение областей определения слагаемых
+public class Sum implements Function {
+    private final Function first;
+    private final Function second;
+
+    public Sum(Function first, Function second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    public Function getFirst() {
+        return first;
+    }
+
+    public Function getSecond() {
+        return second;
+    }
+
+    public double getLeftDomainBorder() {
+        return Math.max(first.getLeftDomainBorder(), second.getLeftDomainBorder());
+    }
+
+    public double getRightDomainBorder() {
+        return Math.min(first.getRightDomainBorder(), second.getRightDomainBorder());
+    }
+
+    public double getFunctionValue(double x) {
+        return first.getFunctionValue(x) + second.getFunctionValue(x);
+    }
+
+    // Каждое слагаемое вычисляется пакетно; второе - раньше первого, пока xs еще не перезаписан (xs может совпадать с values)
+    @Override
+    public void getFunctionValues(double[] xs, double[] values) {
+        if (values.length < xs.length) {
+            throw new IllegalArgumentException("Массив результатов короче массива аргументов");
+        }
+        double[] terms = new double[xs.length];
+        second.getFunctionValues(xs, terms);
+        first.getFunctionValues(xs, values);
+        for (int i = 0; i < xs.length; i++) {
+            values[i] += terms[i];
+        }
+    }
+}